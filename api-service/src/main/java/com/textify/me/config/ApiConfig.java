@@ -1,9 +1,13 @@
 package com.textify.me.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 public class ApiConfig {
@@ -13,6 +17,7 @@ public class ApiConfig {
      * This ensures callbacks run on a managed thread pool, not blocking the main threads.
      */
     @Bean(name = "pubSubCallbackExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
     public Executor pubSubCallbackExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5); // Number of threads to keep in the pool, even if idle
@@ -22,4 +27,33 @@ public class ApiConfig {
         executor.initialize(); // Initialize the thread pool
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Virtual-thread variant, active when spring.threads.virtual.enabled=true on Java 21+.
+     * Each callback gets its own virtual thread, so a burst of publishes can't fill a bounded queue.
+     */
+    @Bean(name = "pubSubCallbackExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualPubSubCallbackExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("PubSubCallback-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    /**
+     * Signs download URLs for bulk status lookups in parallel. V4 signing is local RSA work,
+     * so the pool is sized to the cores; when the queue is full the request thread signs itself.
+     */
+    @Bean(name = "urlSigningExecutor")
+    public Executor urlSigningExecutor() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(cores);
+        executor.setMaxPoolSize(cores);
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("UrlSigning-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,44 @@
+package com.textify.me.config;
+
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.textify.me.service.ReadYourWritesTracker;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Pins requests for a recently written job ({jobId} path variable) or user (userId parameter)
+ * to the primary data source, so a status read right after an upload sees the new job even if
+ * the replica lags behind.
+ */
+@Component
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    private final ReadYourWritesTracker tracker;
+
+    public ReadYourWritesInterceptor(ReadYourWritesTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String jobId = pathVariables != null ? pathVariables.get("jobId") : null;
+        if (tracker.hasRecentWrite(jobId, request.getParameter("userId"))) {
+            TransactionRoutingDataSource.setPinnedToPrimary(true);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        TransactionRoutingDataSource.setPinnedToPrimary(false);
+    }
+}
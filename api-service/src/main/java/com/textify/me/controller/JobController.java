@@ -1,19 +1,29 @@
 package com.textify.me.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.textify.me.dto.BatchGetJobStatusRequest;
+import com.textify.me.dto.BatchGetJobStatusResponse;
+import com.textify.me.dto.CreateJobRequest;
+import com.textify.me.dto.CreateJobResponse;
 import com.textify.me.dto.JobStatusResponse;
+import com.textify.me.dto.OcrProfile;
 import com.textify.me.dto.UploadResponse;
 import com.textify.me.exception.InvalidFileException;
 import com.textify.me.exception.JobNotFoundException;
@@ -25,6 +35,8 @@ public class JobController {
 
      private final JobService jobService;
 
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
     public JobController(JobService jobService) {
         this.jobService = jobService;
     }
@@ -32,27 +44,77 @@ public class JobController {
     /* used by frontend app */
     @PostMapping("/upload")
     public ResponseEntity<UploadResponse> uploadFile(@RequestParam("file") MultipartFile file, 
-    @RequestParam("userId") String userId) {
-        UploadResponse response = jobService.initiateFileUpload(file, userId);
+    @RequestParam("userId") String userId,
+    @RequestParam(value = "model", required = false) String model,
+    @RequestParam(value = "languages", required = false) String languages,
+    @RequestParam(value = "psm", required = false) Integer pageSegMode,
+    @RequestParam(value = "dpi", required = false) Integer dpi) {
+        UploadResponse response = jobService.initiateFileUpload(file, userId,
+                new OcrProfile(model, languages, pageSegMode, dpi));
         return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
     }
 
+    /* direct-to-storage upload: create the job, PUT the file to the signed URL, then complete */
+    @PostMapping
+    public ResponseEntity<CreateJobResponse> createJob(@RequestBody CreateJobRequest request) {
+        CreateJobResponse response = jobService.createJobForDirectUpload(request);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @PostMapping("/{jobId}/complete")
+    public ResponseEntity<UploadResponse> completeUpload(@PathVariable String jobId) {
+        UploadResponse response = jobService.completeDirectUpload(jobId);
+        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<UploadResponse> cancelJob(@PathVariable String jobId) {
+        UploadResponse response = jobService.cancelJob(jobId);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @GetMapping
-    public ResponseEntity<UploadResponse>  getJobStatusByUserId(@RequestParam("userId") String userId) {
+    public ResponseEntity<UploadResponse>  getJobStatusByUserId(@RequestParam("userId") String userId,
+            WebRequest webRequest) {
+        String eTag = jobService.getJobStatusByUserIdETag(userId);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         UploadResponse response = jobService.getJobStatusByUserId(userId);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(eTag).body(response);
     }
     /* additional api's for postman */
 
     @GetMapping("/{jobId}/status")
-    public ResponseEntity<JobStatusResponse> getJobStatus(@PathVariable String jobId) {
-        JobStatusResponse response = jobService.getJobStatus(jobId);
-        return new ResponseEntity<>(response, HttpStatus.OK);
+    public ResponseEntity<JobStatusResponse> getJobStatus(@PathVariable String jobId,
+            @RequestParam(value = "includeText", defaultValue = "false") boolean includeText,
+            WebRequest webRequest) {
+        // Pollers revalidate with If-None-Match; a match skips building the response and signing the URL
+        String eTag = jobService.getJobStatusETag(jobId, includeText);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        JobStatusResponse response = jobService.getJobStatus(jobId, includeText);
+        // If the job changed in between, the body is newer than the tag; the next poll then just gets a 200
+        return ResponseEntity.ok().eTag(eTag).body(response);
     }
     
+    /* bulk status lookup for clients tracking many jobs, e.g. the batch importer */
+    @PostMapping("/status:batchGet")
+    public ResponseEntity<BatchGetJobStatusResponse> batchGetJobStatus(@RequestBody BatchGetJobStatusRequest request) {
+        BatchGetJobStatusResponse response = jobService.getJobStatuses(request.getJobIds());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     @GetMapping("/{jobId}/download")
-    public ResponseEntity<Void> downloadProcessedFile(@PathVariable String jobId) {
+    public ResponseEntity<String> downloadProcessedFile(@PathVariable String jobId) {
        try {
+            // Small results are stored inline and served from here, without a storage round-trip
+            String inlineText = jobService.getInlineText(jobId);
+            if (inlineText != null) {
+                return ResponseEntity.ok().contentType(TEXT_PLAIN_UTF8).body(inlineText);
+            }
+
             // Delegate to JobService to get the GCS download URL
             String downloadUrl = jobService.getDownloadUrl(jobId);
 
@@ -71,10 +133,15 @@ public class JobController {
     @GetMapping("/recent")
     public ResponseEntity<List<JobStatusResponse>> getRecentJobs(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
+        String eTag = jobService.getRecentJobsETag(page, size);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         // Delegate to JobService to get the paginated list of jobs
         List<JobStatusResponse> recentJobs = jobService.getRecentJobs(page, size);
-        return new ResponseEntity<>(recentJobs, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(eTag).body(recentJobs);
     }
     
 }
@@ -0,0 +1,14 @@
+package com.textify.me.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetJobStatusRequest {
+    private List<String> jobIds;
+}
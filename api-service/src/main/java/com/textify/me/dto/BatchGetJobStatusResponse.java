@@ -0,0 +1,15 @@
+package com.textify.me.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetJobStatusResponse {
+    private List<JobStatusResponse> jobs;  // In request order, duplicates removed
+    private List<String> notFoundJobIds;
+}
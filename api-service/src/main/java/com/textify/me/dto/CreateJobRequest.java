@@ -0,0 +1,17 @@
+package com.textify.me.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Starts a direct-to-storage upload: the file itself is PUT to the returned signed URL
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateJobRequest {
+    private String userId;
+    private String filename;
+    private String contentType;
+    private Long size;             // bytes, used to reject oversized files before signing
+    private OcrProfile ocrProfile; // Nullable
+}
@@ -0,0 +1,19 @@
+package com.textify.me.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateJobResponse {
+    private String jobId;
+    private String status;
+    private String uploadUrl;                 // PUT the file here, then call /{jobId}/complete
+    private Map<String, String> uploadHeaders; // must be sent with the PUT
+    private Instant uploadUrlExpiresAt;
+}
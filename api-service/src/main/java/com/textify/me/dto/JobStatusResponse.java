@@ -18,4 +18,8 @@ public class JobStatusResponse {
     private String errorMessage; // Nullable
     private Instant createdAt;
     private String downloadUrl;  // Nullable, only present if status is COMPLETED
+    private Integer pageCount;   // Nullable until the job is processed
+    private Integer blankPages;  // Nullable until the job is processed
+    private String textPreview;  // Nullable, start of the extracted text once COMPLETED
+    private String text;         // Nullable, full text of small results, only if includeText was requested
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.textify.me.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Job dispatch payload - must match worker-service's ProcessingRequestPayload
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessingRequestPayload {
+    private String jobId;
+    private String originalGcsPath;
+    private String userId;
+    private OcrProfile ocrProfile; // null = worker defaults
+}
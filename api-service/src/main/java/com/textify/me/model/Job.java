@@ -45,6 +45,30 @@ public class Job {
 	
 	@Column
 	String error_message;
+
+	@Column
+	String ocrModel; // requested OCR profile; null fields mean worker defaults
+
+	@Column
+	String ocrLanguages;
+
+	@Column
+	Integer ocrPageSegMode;
+
+	@Column
+	Integer ocrDpi;
+
+	@Column
+	Integer pageCount;
+
+	@Column
+	Integer blankPages; // pages skipped by OCR as blank
+
+	@Column
+	Integer estimatedPages; // set at upload, before the worker knows pageCount
+
+	@Column
+	Long fileSize; // bytes; declared by the client for direct uploads
 	
 	@Column
 	Instant createdAt;
@@ -0,0 +1,42 @@
+package com.textify.me.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Row of the JDBC job queue (textify.queue.backend = jdbc)
+@Entity
+@Table(name = "job_queue", indexes = @Index(name = "idx_job_queue_visible_at", columnList = "visibleAt"))
+@NoArgsConstructor
+@Data
+@AllArgsConstructor
+public class JobQueueEntry {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	Long id;
+
+	@Column(nullable = false)
+	String jobId;
+
+	@Column(nullable = false, columnDefinition = "TEXT")
+	String payload; // JSON ProcessingRequestPayload
+
+	@Column(nullable = false)
+	int attempts;
+
+	@Column(nullable = false)
+	Instant enqueuedAt;
+
+	@Column(nullable = false)
+	Instant visibleAt; // Entry can be claimed once this time has passed
+	
+}
@@ -0,0 +1,24 @@
+package com.textify.me.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Extracted text of a job small enough to be kept in the database instead of object storage
+@Entity
+@Table(name = "job_texts")
+@NoArgsConstructor
+@Data
+@AllArgsConstructor
+public class JobText {
+	@Id
+	String jobId;
+
+	@Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+	String content;
+
+}
@@ -0,0 +1,8 @@
+package com.textify.me.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.textify.me.model.JobQueueEntry;
+
+public interface JobQueueRepository extends JpaRepository<JobQueueEntry, Long> {
+}
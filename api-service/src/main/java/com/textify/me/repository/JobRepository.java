@@ -1,11 +1,49 @@
 package com.textify.me.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.textify.me.model.Job;
 
+// Query methods are read-only unless marked otherwise, so with a replica configured they
+// are routed to it (see DataSourceConfiguration)
+@Transactional(readOnly = true)
 public interface JobRepository extends JpaRepository<Job, String> {
 
     public Job findTopByUserIdOrderByCreatedAtDesc(String userId);
-}
 
+    public Optional<JobVersion> findVersionById(String id);
+
+    public Page<JobVersion> findAllProjectedBy(Pageable pageable);
+
+    public long countByUserIdAndStatusIn(String userId, Collection<String> statuses);
+
+    @Query("SELECT j.id AS id, j.userId AS userId, j.status AS status, j.original_filename AS originalFilename, "
+            + "j.error_message AS errorMessage, j.createdAt AS createdAt, j.processed_gcs_path AS processedPath, "
+            + "j.pageCount AS pageCount, j.blankPages AS blankPages, j.extracted_text_preview AS textPreview "
+            + "FROM Job j WHERE j.id IN :ids")
+    public List<JobStatusView> findStatusViewsByIdIn(@Param("ids") Collection<String> ids);
+
+    // Moves a direct upload to UPLOADED exactly once; returns 0 if another call got there first
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = 'UPLOADED', j.updatedAt = :now WHERE j.id = :id AND j.status = 'PENDING_UPLOAD'")
+    public int markUploaded(@Param("id") String id, @Param("now") Instant now);
+
+    // Workers see the status at dequeue and between pages; finished jobs are left alone
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = 'CANCELLED', j.updatedAt = :now WHERE j.id = :id "
+            + "AND j.status IN ('PENDING_UPLOAD', 'UPLOADED', 'PROCESSING')")
+    public int markCancelled(@Param("id") String id, @Param("now") Instant now);
+}
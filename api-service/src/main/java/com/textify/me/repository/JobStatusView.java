@@ -0,0 +1,29 @@
+package com.textify.me.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of the columns needed to build a JobStatusResponse, for bulk status lookups.
+ */
+public interface JobStatusView {
+
+    String getId();
+
+    String getUserId();
+
+    String getStatus();
+
+    String getOriginalFilename();
+
+    String getErrorMessage();
+
+    Instant getCreatedAt();
+
+    String getProcessedPath();
+
+    Integer getPageCount();
+
+    Integer getBlankPages();
+
+    String getTextPreview();
+}
@@ -0,0 +1,11 @@
+package com.textify.me.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.textify.me.model.JobText;
+
+// Written by the workers only; read here for inline results
+@Transactional(readOnly = true)
+public interface JobTextRepository extends JpaRepository<JobText, String> {
+}
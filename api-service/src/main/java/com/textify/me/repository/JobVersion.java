@@ -0,0 +1,16 @@
+package com.textify.me.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of the columns that identify a job's version, for ETag checks that should not
+ * load the whole row.
+ */
+public interface JobVersion {
+
+    String getId();
+
+    String getStatus();
+
+    Instant getUpdatedAt();
+}
@@ -0,0 +1,96 @@
+package com.textify.me.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Exports the job backlog for autoscaling: jobs and pages waiting for a worker (UPLOADED) and
+ * being processed (PROCESSING), by file type, and the age of the oldest job not yet started.
+ * Unlike worker CPU, these rise as soon as uploads outpace the workers. Pages come from the
+ * estimate made at upload until a worker has set the real page count.
+ * One aggregate query refreshes them all; scrapes only read the last values.
+ */
+@Service
+public class BacklogMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacklogMonitor.class);
+
+    private static final List<String> STATUSES = List.of("UPLOADED", "PROCESSING");
+    private static final List<String> FILE_TYPES = List.of("pdf", "image");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Map<String, AtomicLong> jobs = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> pages = new ConcurrentHashMap<>();
+    private final AtomicLong oldestUnstartedMillis = new AtomicLong();
+
+    public BacklogMonitor(NamedParameterJdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (String status : STATUSES) {
+            for (String fileType : FILE_TYPES) {
+                String key = key(status, fileType);
+                jobs.put(key, new AtomicLong());
+                pages.put(key, new AtomicLong());
+                Gauge.builder("textify.backlog.jobs", jobs.get(key), AtomicLong::get)
+                        .tags("status", status.toLowerCase(), "file_type", fileType)
+                        .description("Jobs waiting for a worker (uploaded) or being processed")
+                        .register(meterRegistry);
+                Gauge.builder("textify.backlog.pages", pages.get(key), AtomicLong::get)
+                        .tags("status", status.toLowerCase(), "file_type", fileType)
+                        .description("Pages of the jobs in textify.backlog.jobs, estimated until OCR starts")
+                        .register(meterRegistry);
+            }
+        }
+        Gauge.builder("textify.backlog.oldest-unstarted.age", oldestUnstartedMillis, millis -> millis.get() / 1000.0)
+                .baseUnit("seconds")
+                .description("Age of the oldest job waiting for a worker, 0 when none is")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${textify.backlog.refresh-interval-ms:15000}")
+    public void refresh() {
+        try {
+            Map<String, Long> jobCounts = new HashMap<>();
+            Map<String, Long> pageCounts = new HashMap<>();
+            Instant[] oldest = new Instant[1];
+            jdbcTemplate.query("SELECT status, file_type, COUNT(*) AS jobs, "
+                    + "SUM(COALESCE(page_count, estimated_pages, 1)) AS pages, MIN(created_at) AS oldest "
+                    + "FROM processing_jobs WHERE status IN (:statuses) GROUP BY status, file_type",
+                    Map.of("statuses", STATUSES), rs -> {
+                        String key = key(rs.getString("status"), rs.getString("file_type"));
+                        jobCounts.merge(key, rs.getLong("jobs"), Long::sum);
+                        pageCounts.merge(key, rs.getLong("pages"), Long::sum);
+                        Timestamp createdAt = rs.getTimestamp("oldest");
+                        if ("UPLOADED".equals(rs.getString("status")) && createdAt != null
+                                && (oldest[0] == null || createdAt.toInstant().isBefore(oldest[0]))) {
+                            oldest[0] = createdAt.toInstant();
+                        }
+                    });
+            jobs.forEach((key, value) -> value.set(jobCounts.getOrDefault(key, 0L)));
+            pages.forEach((key, value) -> value.set(pageCounts.getOrDefault(key, 0L)));
+            oldestUnstartedMillis.set(oldest[0] == null ? 0 : Duration.between(oldest[0], Instant.now()).toMillis());
+        } catch (RuntimeException e) {
+            // The gauges keep their last values until the next refresh
+            logger.warn("Could not refresh the job backlog: {}", e.getMessage());
+        }
+    }
+
+    // Jobs of a file type the gauges don't know are counted as pdf, the more expensive kind
+    private static String key(String status, String fileType) {
+        return status + "/" + (FILE_TYPES.contains(fileType) ? fileType : "pdf");
+    }
+}
@@ -0,0 +1,23 @@
+package com.textify.me.service;
+
+/**
+ * Size and content type of a stored object, as reported by the storage backend.
+ */
+public final class BlobMetadata {
+
+    private final long size;
+    private final String contentType;
+
+    public BlobMetadata(long size, String contentType) {
+        this.size = size;
+        this.contentType = contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
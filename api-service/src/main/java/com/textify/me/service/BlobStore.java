@@ -0,0 +1,53 @@
+package com.textify.me.service;
+
+import java.time.Duration;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Object storage used for raw uploads and processed results.
+ * The backend is selected with {@code textify.storage.backend} (gcs or local).
+ */
+public interface BlobStore {
+
+    /**
+     * Stores an uploaded file in the raw uploads bucket.
+     *
+     * @param file The uploaded file.
+     * @param blobName The object name inside the raw uploads bucket.
+     * @return The storage path of the stored object (e.g. gs://bucket/blob).
+     */
+    String uploadFile(MultipartFile file, String blobName);
+
+    /**
+     * Returns a URL clients can use to download the object at the given storage path.
+     */
+    String getPublicDownloadUrl(String path);
+
+    /**
+     * Returns a signed URL a client can PUT a file to in the raw uploads bucket, bypassing
+     * this service, restricted to the given content type and at most maxSize bytes.
+     *
+     * @param blobName The object name inside the raw uploads bucket.
+     * @param contentType The content type the client must upload with.
+     * @param maxSize The largest accepted upload, in bytes; the size the client declared.
+     * @param validity How long the URL can be used.
+     */
+    SignedUpload createSignedUpload(String blobName, String contentType, long maxSize, Duration validity);
+
+    /**
+     * Returns the storage path an object in the raw uploads bucket has (e.g. gs://bucket/blob).
+     */
+    String getRawUploadPath(String blobName);
+
+    /**
+     * Returns the size and content type of the object at the given storage path,
+     * or null if there is no such object.
+     */
+    BlobMetadata getMetadata(String path);
+
+    /**
+     * Deletes the object at the given storage path; does nothing if it does not exist.
+     */
+    void delete(String path);
+}
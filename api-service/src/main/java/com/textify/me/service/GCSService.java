@@ -2,19 +2,26 @@ package com.textify.me.service;
 
 import java.io.IOException;
 import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.HttpMethod;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageException;
 
 @Service
-public class GCSService {
+@ConditionalOnProperty(name = "textify.storage.backend", havingValue = "gcs", matchIfMissing = true)
+public class GCSService implements BlobStore {
     private final Storage storage; // Google Cloud Storage client
 	private final String rawUploadsBucketName;
 	private final String processedFilesBucketName;
@@ -29,6 +36,7 @@ public class GCSService {
 		this.gcpProjectId = gcpProjectId;
 	}
     
+    @Override
     public String uploadFile(MultipartFile file, String gcsBlobName) {
 		try {
 			// Define the Blob (object) in GCS
@@ -50,20 +58,15 @@ public class GCSService {
 			throw new RuntimeException("Failed to upload file to GCS: " + file.getOriginalFilename(), e);
 		}
 	}
-   public String getPublicDownloadUrl(String gcsPath) {
+    @Override
+    public String getPublicDownloadUrl(String gcsPath) {
         // Parse the GCS path (e.g., "gs://your-bucket/path/to/file.txt")
-        if (!gcsPath.startsWith("gs://")) {
+        BlobPath blobPath = BlobPath.parse(gcsPath);
+        if (!"gs".equals(blobPath.getScheme())) {
             throw new IllegalArgumentException("Invalid GCS path format: " + gcsPath);
         }
-        String pathWithoutPrefix = gcsPath.substring("gs://".length());
-        int firstSlash = pathWithoutPrefix.indexOf('/');
-        if (firstSlash == -1) {
-            throw new IllegalArgumentException("Invalid GCS path format (no blob name): " + gcsPath);
-        }
-        String bucketName = pathWithoutPrefix.substring(0, firstSlash);
-        String objectName = pathWithoutPrefix.substring(firstSlash + 1);
 
-        BlobInfo blobInfo = BlobInfo.newBuilder(bucketName, objectName).build();
+        BlobInfo blobInfo = BlobInfo.newBuilder(blobPath.getBucket(), blobPath.getObjectName()).build();
 
         // The signed URL will be valid for 15 minutes.
         // You can adjust this duration as needed.
@@ -71,4 +74,51 @@ public class GCSService {
 
         return signedUrl.toString();
     }
+
+    @Override
+    public SignedUpload createSignedUpload(String blobName, String contentType, long maxSize, Duration validity) {
+        BlobInfo blobInfo = BlobInfo.newBuilder(rawUploadsBucketName, blobName).setContentType(contentType).build();
+        // Both headers are part of the signature, so GCS rejects a PUT without them
+        Map<String, String> lengthRange = Map.of("x-goog-content-length-range", "0," + maxSize);
+        URL signedUrl = storage.signUrl(blobInfo, validity.getSeconds(), TimeUnit.SECONDS,
+                Storage.SignUrlOption.httpMethod(HttpMethod.PUT),
+                Storage.SignUrlOption.withContentType(),
+                Storage.SignUrlOption.withExtHeaders(lengthRange),
+                Storage.SignUrlOption.withV4Signature());
+        return new SignedUpload(signedUrl.toString(),
+                Map.of("Content-Type", contentType, "x-goog-content-length-range", "0," + maxSize),
+                Instant.now().plus(validity));
+    }
+
+    @Override
+    public String getRawUploadPath(String blobName) {
+        return String.format("gs://%s/%s", rawUploadsBucketName, blobName);
+    }
+
+    @Override
+    public BlobMetadata getMetadata(String gcsPath) {
+        BlobPath blobPath = BlobPath.parse(gcsPath);
+        if (!"gs".equals(blobPath.getScheme())) {
+            throw new IllegalArgumentException("Invalid GCS path format: " + gcsPath);
+        }
+        try {
+            Blob blob = storage.get(BlobId.of(blobPath.getBucket(), blobPath.getObjectName()));
+            return blob == null ? null : new BlobMetadata(blob.getSize(), blob.getContentType());
+        } catch (StorageException e) {
+            throw new RuntimeException("Failed to read object metadata from GCS: " + gcsPath, e);
+        }
+    }
+
+    @Override
+    public void delete(String gcsPath) {
+        BlobPath blobPath = BlobPath.parse(gcsPath);
+        if (!"gs".equals(blobPath.getScheme())) {
+            throw new IllegalArgumentException("Invalid GCS path format: " + gcsPath);
+        }
+        try {
+            storage.delete(BlobId.of(blobPath.getBucket(), blobPath.getObjectName()));
+        } catch (StorageException e) {
+            throw new RuntimeException("Failed to delete object from GCS: " + gcsPath, e);
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package com.textify.me.service;
+
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.textify.me.dto.ProcessingRequestPayload;
+import com.textify.me.model.JobQueueEntry;
+import com.textify.me.repository.JobQueueRepository;
+
+/**
+ * JobQueue backed by the job_queue table, for deployments without GCP.
+ * Workers claim entries with SELECT ... FOR UPDATE SKIP LOCKED, so any number of
+ * worker nodes can share the queue without handing the same job to two of them.
+ */
+@Service
+@ConditionalOnProperty(name = "textify.queue.backend", havingValue = "jdbc")
+public class JdbcJobQueue implements JobQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcJobQueue.class);
+
+    private final JobQueueRepository jobQueueRepository;
+    private final ObjectMapper objectMapper;
+
+    public JdbcJobQueue(JobQueueRepository jobQueueRepository, ObjectMapper objectMapper) {
+        this.jobQueueRepository = jobQueueRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Inserts a queue entry. When called from JobService.initiateFileUpload the insert joins the
+     * upload transaction, so the entry only becomes visible to workers once the job row is committed.
+     */
+    @Override
+    @Transactional
+    public void publishProcessingRequest(ProcessingRequestPayload request) {
+        try {
+            Instant now = Instant.now();
+            JobQueueEntry entry = new JobQueueEntry();
+            entry.setJobId(request.getJobId());
+            entry.setPayload(objectMapper.writeValueAsString(request));
+            entry.setAttempts(0);
+            entry.setEnqueuedAt(now);
+            entry.setVisibleAt(now);
+            jobQueueRepository.save(entry);
+            logger.info("Enqueued job ID {} on the JDBC job queue.", request.getJobId());
+        } catch (JsonProcessingException e) {
+            logger.error("Error serializing queue payload for job ID {}: {}", request.getJobId(), e.getMessage(), e);
+            throw new RuntimeException("Failed to create job queue payload due to JSON processing error", e);
+        }
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+}
@@ -0,0 +1,116 @@
+package com.textify.me.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps processing_jobs small: moves finished jobs older than the retention window to
+ * processing_jobs_archive and deletes their raw uploads. Jobs still waiting for a direct upload
+ * after the retention window are treated as abandoned and archived too.
+ * Batches are claimed with FOR UPDATE SKIP LOCKED, so several api instances can run it at once.
+ */
+@Service
+@ConditionalOnProperty(name = "textify.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class JobArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobArchiver.class);
+
+    // Every processing_jobs column except the worker's lease and attempt count; processing_jobs_archive has
+    // these plus archived_at
+    static final String JOB_COLUMNS = "id, user_id, original_filename, original_gcs_path, processed_gcs_path, status, "
+            + "file_type, mime_type, extracted_text_preview, error_message, ocr_model, ocr_languages, "
+            + "ocr_page_seg_mode, ocr_dpi, page_count, blank_pages, estimated_pages, file_size, created_at, updated_at";
+
+    private static final List<String> ARCHIVABLE_STATUSES = List.of("COMPLETED", "FAILED", "CANCELLED", "PENDING_UPLOAD");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlobStore blobStore;
+    private final Duration retention;
+    private final int batchSize;
+
+    public JobArchiver(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                       BlobStore blobStore,
+                       @Value("${textify.archive.retention:P30D}") Duration retention,
+                       @Value("${textify.archive.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.blobStore = blobStore;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${textify.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        Instant cutoff = Instant.now().minus(retention);
+        int total = 0;
+        ArchivedBatch batch;
+        do {
+            batch = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += batch.jobCount;
+            // Storage calls stay outside the transaction; a failed delete only leaves an orphaned object
+            for (String rawPath : batch.rawPaths) {
+                try {
+                    blobStore.delete(rawPath);
+                } catch (RuntimeException e) {
+                    logger.warn("Could not delete raw upload {} of an archived job: {}", rawPath, e.getMessage());
+                }
+            }
+        } while (batch.jobCount == batchSize);
+        logger.info("Archived {} jobs created before {}.", total, cutoff);
+    }
+
+    // Moves one batch of jobs to the archive table
+    private ArchivedBatch archiveBatch(Instant cutoff) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("statuses", ARCHIVABLE_STATUSES)
+                .addValue("cutoff", Timestamp.from(cutoff))
+                .addValue("limit", batchSize);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, original_gcs_path FROM processing_jobs WHERE status IN (:statuses) AND created_at < :cutoff "
+                        + "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", params);
+        List<String> ids = new ArrayList<>(rows.size());
+        List<String> rawPaths = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            ids.add((String) row.get("id"));
+            if (row.get("original_gcs_path") != null) {
+                rawPaths.add((String) row.get("original_gcs_path"));
+            }
+        }
+        if (!ids.isEmpty()) {
+            MapSqlParameterSource batch = new MapSqlParameterSource()
+                    .addValue("ids", ids)
+                    .addValue("now", Timestamp.from(Instant.now()));
+            jdbcTemplate.update("INSERT INTO processing_jobs_archive (" + JOB_COLUMNS + ", archived_at) SELECT "
+                    + JOB_COLUMNS + ", :now FROM processing_jobs WHERE id IN (:ids)", batch);
+            jdbcTemplate.update("DELETE FROM processing_jobs WHERE id IN (:ids)", batch);
+            // Inline results go with their job; the preview is kept in the archive row
+            jdbcTemplate.update("DELETE FROM job_texts WHERE job_id IN (:ids)", batch);
+        }
+        return new ArchivedBatch(ids.size(), rawPaths);
+    }
+
+    private static class ArchivedBatch {
+        private final int jobCount;
+        private final List<String> rawPaths; // raw uploads to delete once the batch is committed
+
+        ArchivedBatch(int jobCount, List<String> rawPaths) {
+            this.jobCount = jobCount;
+            this.rawPaths = rawPaths;
+        }
+    }
+}
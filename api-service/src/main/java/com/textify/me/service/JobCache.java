@@ -0,0 +1,118 @@
+package com.textify.me.service;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.textify.me.model.Job;
+import com.textify.me.repository.JobRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache of job snapshots for the status and download endpoints.
+ * A job changes only a few times in its life and rarely once it reaches a terminal state, so
+ * terminal jobs are cached for an hour or so; the bound still lets changes made outside this
+ * instance (archiving, another api instance) show up eventually. In-flight jobs are written by
+ * the workers, which this service never hears from, so they expire after a short TTL.
+ * Cached jobs are detached snapshots and must not be modified or saved.
+ */
+@Service
+public class JobCache {
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("COMPLETED", "FAILED", "CANCELLED");
+
+    private final JobRepository jobRepository;
+    private final Cache<String, Job> jobs;
+    private final Cache<String, String> latestJobIdByUser;
+
+    public JobCache(JobRepository jobRepository, MeterRegistry meterRegistry,
+                    @Value("${textify.cache.jobs.max-size:10000}") long maxSize,
+                    @Value("${textify.cache.jobs.in-flight-ttl:PT2S}") Duration inFlightTtl,
+                    @Value("${textify.cache.jobs.terminal-ttl:PT1H}") Duration terminalTtl) {
+        this.jobRepository = jobRepository;
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new StatusExpiry(inFlightTtl, terminalTtl))
+                .recordStats()
+                .build();
+        // A user's latest job changes with every upload, possibly on another api instance
+        this.latestJobIdByUser = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(inFlightTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, jobs, "jobs");
+        CaffeineCacheMetrics.monitor(meterRegistry, latestJobIdByUser, "latestJobByUser");
+    }
+
+    /**
+     * Returns the job, loading it from the database on a miss, or null if there is no such job.
+     * Cache hits are database queries saved; see the cache.gets{cache=jobs} metric.
+     */
+    public Job get(String jobId) {
+        return jobs.get(jobId, id -> jobRepository.findById(id).orElse(null));
+    }
+
+    /**
+     * Returns the cached job without loading it, or null if it is not cached.
+     */
+    public Job getIfPresent(String jobId) {
+        return jobs.getIfPresent(jobId);
+    }
+
+    /**
+     * Returns the user's most recently created job, or null if the user has none.
+     */
+    public Job getLatestForUser(String userId) {
+        String jobId = latestJobIdByUser.get(userId, id -> {
+            Job job = jobRepository.findTopByUserIdOrderByCreatedAtDesc(id);
+            if (job == null) {
+                return null;
+            }
+            jobs.put(job.getId(), job);
+            return job.getId();
+        });
+        return jobId == null ? null : get(jobId);
+    }
+
+    /**
+     * Drops cached state made stale by a job this instance just created or changed.
+     */
+    public void invalidate(Job job) {
+        jobs.invalidate(job.getId());
+        latestJobIdByUser.invalidate(job.getUserId());
+    }
+
+    // Both TTLs run from when the job was loaded; reads don't extend them
+    static class StatusExpiry implements Expiry<String, Job> {
+        private final long inFlightTtlNanos;
+        private final long terminalTtlNanos;
+
+        StatusExpiry(Duration inFlightTtl, Duration terminalTtl) {
+            this.inFlightTtlNanos = inFlightTtl.toNanos();
+            this.terminalTtlNanos = terminalTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String jobId, Job job, long currentTime) {
+            return TERMINAL_STATUSES.contains(job.getStatus()) ? terminalTtlNanos : inFlightTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String jobId, Job job, long currentTime, long currentDuration) {
+            return expireAfterCreate(jobId, job, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String jobId, Job job, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.textify.me.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.textify.me.dto.OcrProfile;
+import com.textify.me.dto.ProcessingRequestPayload;
+
+/**
+ * Reclaims jobs from workers that died mid-job. Workers lease the jobs they process and renew
+ * the lease with a heartbeat; a PROCESSING job whose lease ran out more than the grace period
+ * ago is reset to UPLOADED and enqueued again. If the original delivery is redelivered as well,
+ * the worker lease lets only one of the two through.
+ */
+@Service
+public class JobLeaseSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseSweeper.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobQueue jobQueue;
+    private final Duration grace;
+    private final int batchSize;
+
+    public JobLeaseSweeper(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           JobQueue jobQueue,
+                           @Value("${textify.lease.grace:PT1M}") Duration grace,
+                           @Value("${textify.lease.sweep-batch-size:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jobQueue = jobQueue;
+        this.grace = grace;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${textify.lease.sweep-interval-ms:60000}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(grace);
+        List<ProcessingRequestPayload> requeued = transactionTemplate.execute(status -> requeueExpired(cutoff));
+        if (requeued == null || requeued.isEmpty()) {
+            return;
+        }
+        // Queues outside the database (Pub/Sub) only hear of jobs whose reset has committed
+        if (!jobQueue.isTransactional()) {
+            for (ProcessingRequestPayload request : requeued) {
+                publishOrRestore(request, cutoff);
+            }
+        }
+        logger.warn("Requeued {} jobs whose worker lease expired before {}.", requeued.size(), cutoff);
+    }
+
+    // A job reset to UPLOADED without a message would never be picked up; put it back for the next sweep
+    private void publishOrRestore(ProcessingRequestPayload request, Instant cutoff) {
+        try {
+            jobQueue.publishProcessingRequest(request);
+        } catch (RuntimeException e) {
+            logger.error("Could not requeue job {}; it will be retried on the next sweep: {}", request.getJobId(),
+                    e.getMessage(), e);
+            jdbcTemplate.update("UPDATE processing_jobs SET status = 'PROCESSING', lease_expires_at = :expired "
+                    + "WHERE id = :id AND status = 'UPLOADED' AND lease_owner IS NULL", new MapSqlParameterSource()
+                    .addValue("id", request.getJobId())
+                    .addValue("expired", Timestamp.from(cutoff.minusSeconds(1))));
+        }
+    }
+
+    private List<ProcessingRequestPayload> requeueExpired(Instant cutoff) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff", Timestamp.from(cutoff))
+                .addValue("limit", batchSize);
+        List<ProcessingRequestPayload> requests = jdbcTemplate.query(
+                "SELECT id, user_id, original_gcs_path, ocr_model, ocr_languages, ocr_page_seg_mode, ocr_dpi "
+                        + "FROM processing_jobs WHERE status = 'PROCESSING' AND lease_expires_at < :cutoff "
+                        + "LIMIT :limit FOR UPDATE SKIP LOCKED", params,
+                (rs, rowNum) -> new ProcessingRequestPayload(rs.getString("id"), rs.getString("original_gcs_path"),
+                        rs.getString("user_id"), new OcrProfile(rs.getString("ocr_model"), rs.getString("ocr_languages"),
+                                rs.getObject("ocr_page_seg_mode", Integer.class), rs.getObject("ocr_dpi", Integer.class))));
+        if (requests.isEmpty()) {
+            return requests;
+        }
+        List<String> ids = new ArrayList<>(requests.size());
+        for (ProcessingRequestPayload request : requests) {
+            ids.add(request.getJobId());
+        }
+        jdbcTemplate.update("UPDATE processing_jobs SET status = 'UPLOADED', lease_owner = NULL, lease_expires_at = NULL, "
+                + "updated_at = :now WHERE id IN (:ids)", new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("now", Timestamp.from(Instant.now())));
+        // The JDBC queue joins this transaction, so the status reset and the new entries commit together
+        if (jobQueue.isTransactional()) {
+            for (ProcessingRequestPayload request : requests) {
+                jobQueue.publishProcessingRequest(request);
+            }
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,25 @@
+package com.textify.me.service;
+
+import com.textify.me.dto.ProcessingRequestPayload;
+
+/**
+ * Dispatches processing requests to the worker-service.
+ * The backend is selected with {@code textify.queue.backend} (pubsub or jdbc).
+ */
+public interface JobQueue {
+
+    /**
+     * Enqueues a processing request for the given job.
+     *
+     * @param request The job ID, original storage path and user of the job to process.
+     */
+    void publishProcessingRequest(ProcessingRequestPayload request);
+
+    /**
+     * Whether publishing joins the caller's database transaction, so a rollback also withdraws the
+     * request. Requests to queues that don't should only be published once the transaction committed.
+     */
+    default boolean isTransactional() {
+        return false;
+    }
+}
@@ -1,41 +1,81 @@
 package com.textify.me.service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.textify.me.dto.BatchGetJobStatusResponse;
+import com.textify.me.dto.CreateJobRequest;
+import com.textify.me.dto.CreateJobResponse;
 import com.textify.me.dto.JobStatusResponse;
+import com.textify.me.dto.OcrProfile;
+import com.textify.me.dto.ProcessingRequestPayload;
 import com.textify.me.dto.UploadResponse;
 import com.textify.me.exception.InvalidFileException;
+import com.textify.me.exception.InvalidRequestException;
 import com.textify.me.exception.JobNotFoundException;
 import com.textify.me.model.Job;
+import com.textify.me.model.JobText;
 import com.textify.me.repository.JobRepository;
+import com.textify.me.repository.JobStatusView;
+import com.textify.me.repository.JobTextRepository;
+import com.textify.me.repository.JobVersion;
 
 
 @Service
 public class JobService {
 
     private final JobRepository jobRepository;
-	private final GCSService gcsService;
-	private final PubSubPublisherService pubSubPublisherService;
+	private final JobTextRepository jobTextRepository;
+	private final BlobStore blobStore;
+	private final JobQueue jobQueue;
+	private final JobCache jobCache;
+	private final Executor urlSigningExecutor;
+	private final ReadYourWritesTracker readYourWritesTracker;
+	private final UploadRateLimiter uploadRateLimiter;
+	private final long maxDirectUploadBytes;
+	private final Duration directUploadUrlValidity;
 
-	public JobService(JobRepository jobRepository, GCSService gcsService,
-			PubSubPublisherService pubSubPublisherService) {
+	public JobService(JobRepository jobRepository, JobTextRepository jobTextRepository, BlobStore blobStore,
+			JobQueue jobQueue, JobCache jobCache,
+			@Qualifier("urlSigningExecutor") Executor urlSigningExecutor, ReadYourWritesTracker readYourWritesTracker,
+			UploadRateLimiter uploadRateLimiter,
+			@Value("${textify.upload.direct.max-size:100MB}") DataSize maxDirectUploadSize,
+			@Value("${textify.upload.direct.url-validity:PT15M}") Duration directUploadUrlValidity) {
 		this.jobRepository = jobRepository;
-		this.gcsService = gcsService;
-		this.pubSubPublisherService = pubSubPublisherService;
+		this.jobTextRepository = jobTextRepository;
+		this.blobStore = blobStore;
+		this.jobQueue = jobQueue;
+		this.jobCache = jobCache;
+		this.urlSigningExecutor = urlSigningExecutor;
+		this.readYourWritesTracker = readYourWritesTracker;
+		this.uploadRateLimiter = uploadRateLimiter;
+		this.maxDirectUploadBytes = maxDirectUploadSize.toBytes();
+		this.directUploadUrlValidity = directUploadUrlValidity;
 	}
     // Allowed MIME types]
 	 private static final Map<String, String> FILE_EXTENSION_TO_CATEGORY_MAP;
@@ -59,48 +99,204 @@ public class JobService {
         FILE_EXTENSION_TO_CATEGORY_MAP = Collections.unmodifiableMap(aMap);
     }
 
+	// Signed download URLs are valid for 15 minutes; ETags of completed jobs roll over more often
+	// than that so a client revalidating with If-None-Match never keeps an expired URL
+	private static final Duration DOWNLOAD_URL_REFRESH = Duration.ofMinutes(10);
+
+	// Upper bound on ids per bulk status lookup, keeping the IN list and the response reasonable
+	private static final int MAX_BATCH_GET_JOB_IDS = 500;
+
+	private static final Set<String> OCR_MODELS = Set.of("fast", "best");
+	// Tesseract language codes joined with '+', e.g. eng+deu or chi_sim
+	private static final Pattern OCR_LANGUAGES = Pattern.compile("[a-z][a-z_]*(\\+[a-z][a-z_]*)*");
+
 	@Transactional
-	public UploadResponse initiateFileUpload(MultipartFile file, String userId) {
+	public UploadResponse initiateFileUpload(MultipartFile file, String userId, OcrProfile ocrProfile) {
 
 		// --- 1. Basic File Validation ---
 		if (file.isEmpty()) {
 			throw new InvalidFileException("Uploaded file is empty.");
 		}
 		String mimeType = file.getContentType();
-		if (mimeType == null || !FILE_EXTENSION_TO_CATEGORY_MAP.containsKey(mimeType)) {
-			throw new InvalidFileException("Unsupported file type: " + (mimeType != null ? mimeType : "unknown")
-					+ ". Only images (JPEG, PNG, GIF, BMP, WebP) and PDFs are allowed.");
-		}
+		validateMimeType(mimeType);
+		validateOcrProfile(ocrProfile);
+		// Throttled uploads are refused before anything is written to storage
+		uploadRateLimiter.admit(userId, FILE_EXTENSION_TO_CATEGORY_MAP.get(mimeType), file.getSize());
 		// --- 2. Generate Job ID ---
 		String jobId = UUID.randomUUID().toString();
 		String originalFilename = file.getOriginalFilename(); // Get original file name
 		String fileExtension = getFileExtension(originalFilename); // Helper method to get extension
 		String baseFileName = getBaseFileName(originalFilename); // Helper method to get base name
 
-		// --- 3. Upload Raw File to GCS ---
+		// --- 3. Upload Raw File to storage (GCS or local) ---
 		String gcsBlobName = jobId + "/" + baseFileName + "." + fileExtension; // e.g., UUID/my_document.pdf
-		String originalGcsPath = gcsService.uploadFile(file, gcsBlobName);
+		String originalGcsPath = blobStore.uploadFile(file, gcsBlobName);
 
 		// --- 4. Persist Job Metadata to Cloud SQL ---
+		Job job = newJob(jobId, userId, originalFilename, originalGcsPath, mimeType, file.getSize(), ocrProfile,
+				"UPLOADED");
+		jobRepository.save(job);
+		jobCache.invalidate(job); // the user's latest job just changed
+		readYourWritesTracker.recordWrite(jobId, userId);
+
+		// --- 5. Enqueue Processing Request (Pub/Sub or JDBC queue) ---
+		// The worker service will consume this message to start processing
+		jobQueue.publishProcessingRequest(new ProcessingRequestPayload(jobId, originalGcsPath, userId, ocrProfile));
+
+		return new UploadResponse(jobId, "UPLOADED", "File received and processing initiated.");
+	}
+
+	/**
+	 * Step 1 of a direct-to-storage upload: creates the job in PENDING_UPLOAD and returns a signed
+	 * URL the client PUTs the file to. The file bytes never pass through this service.
+	 */
+	@Transactional
+	public CreateJobResponse createJobForDirectUpload(CreateJobRequest request) {
+		// --- 1. Validate the declared file ---
+		if (request.getUserId() == null || request.getUserId().isBlank()) {
+			throw new InvalidRequestException("userId is required.");
+		}
+		if (request.getFilename() == null || request.getFilename().isBlank()) {
+			throw new InvalidFileException("filename is required.");
+		}
+		if (request.getSize() == null || request.getSize() <= 0) {
+			throw new InvalidFileException("Uploaded file is empty.");
+		}
+		if (request.getSize() > maxDirectUploadBytes) {
+			throw new InvalidFileException("File is larger than the " + maxDirectUploadBytes + " byte limit.");
+		}
+		validateMimeType(request.getContentType());
+		OcrProfile ocrProfile = request.getOcrProfile() != null ? request.getOcrProfile() : new OcrProfile();
+		validateOcrProfile(ocrProfile);
+		uploadRateLimiter.admit(request.getUserId(), FILE_EXTENSION_TO_CATEGORY_MAP.get(request.getContentType()),
+				request.getSize());
+
+		// --- 2. Sign the upload URL for the raw object ---
+		String jobId = UUID.randomUUID().toString();
+		String originalFilename = request.getFilename();
+		String blobName = jobId + "/" + getBaseFileName(originalFilename) + "." + getFileExtension(originalFilename);
+		// Signed for the declared size, which rate limiting and the page estimate were based on
+		SignedUpload upload = blobStore.createSignedUpload(blobName, request.getContentType(), request.getSize(),
+				directUploadUrlValidity);
+
+		// --- 3. Persist the job; it is enqueued once the upload is completed ---
+		Job job = newJob(jobId, request.getUserId(), originalFilename, blobStore.getRawUploadPath(blobName),
+				request.getContentType(), request.getSize(), ocrProfile, "PENDING_UPLOAD");
+		jobRepository.save(job);
+		jobCache.invalidate(job);
+		readYourWritesTracker.recordWrite(jobId, job.getUserId());
+
+		return new CreateJobResponse(jobId, "PENDING_UPLOAD", upload.getUrl(), upload.getHeaders(),
+				upload.getExpiresAt());
+	}
+
+	/**
+	 * Step 2 of a direct-to-storage upload: checks that the object has landed with the declared
+	 * content type and the declared size, then enqueues the job. Safe to call more than once.
+	 */
+	@Transactional
+	public UploadResponse completeDirectUpload(String jobId) {
+		Job job = jobRepository.findById(jobId)
+				.orElseThrow(() -> new JobNotFoundException("Job with ID " + jobId + " not found."));
+		if (!"PENDING_UPLOAD".equals(job.getStatus())) {
+			return new UploadResponse(jobId, job.getStatus(), "Upload already completed.");
+		}
+
+		// --- 1. Verify the uploaded object ---
+		BlobMetadata metadata = blobStore.getMetadata(job.getOriginal_gcs_path());
+		if (metadata == null) {
+			throw new InvalidFileException("No file has been uploaded for job " + jobId + " yet.");
+		}
+		if (metadata.getSize() == 0) {
+			throw new InvalidFileException("Uploaded file is empty.");
+		}
+		if (metadata.getSize() > maxDirectUploadBytes) {
+			throw new InvalidFileException("File is larger than the " + maxDirectUploadBytes + " byte limit.");
+		}
+		if (job.getFileSize() != null && metadata.getSize() != job.getFileSize()) {
+			throw new InvalidFileException("Uploaded file is " + metadata.getSize() + " bytes, but " + job.getFileSize()
+					+ " bytes were declared.");
+		}
+		if (!job.getMimeType().equals(metadata.getContentType())) {
+			throw new InvalidFileException("Uploaded file has content type " + metadata.getContentType()
+					+ ", expected " + job.getMimeType() + ".");
+		}
+
+		// --- 2. Mark UPLOADED, once, and enqueue ---
+		// Tokens were taken at creation; the queue may have filled up while the file was uploading
+		uploadRateLimiter.checkQueueDepth(job.getUserId());
+		if (jobRepository.markUploaded(jobId, Instant.now()) == 0) {
+			return new UploadResponse(jobId, "UPLOADED", "Upload already completed.");
+		}
+		jobCache.invalidate(job);
+		readYourWritesTracker.recordWrite(jobId, job.getUserId());
+		OcrProfile ocrProfile = new OcrProfile(job.getOcrModel(), job.getOcrLanguages(), job.getOcrPageSegMode(),
+				job.getOcrDpi());
+		jobQueue.publishProcessingRequest(
+				new ProcessingRequestPayload(jobId, job.getOriginal_gcs_path(), job.getUserId(), ocrProfile));
+
+		return new UploadResponse(jobId, "UPLOADED", "File received and processing initiated.");
+	}
+
+	/**
+	 * Cancels a job that has not finished yet. Queued deliveries of the job are dropped by the
+	 * workers, and a worker already processing it stops at the next page. Safe to call more than once.
+	 */
+	@Transactional
+	public UploadResponse cancelJob(String jobId) {
+		Job job = jobRepository.findById(jobId)
+				.orElseThrow(() -> new JobNotFoundException("Job with ID " + jobId + " not found."));
+		if (jobRepository.markCancelled(jobId, Instant.now()) == 0) {
+			return new UploadResponse(jobId, job.getStatus(), "Job already finished; nothing to cancel.");
+		}
+		jobCache.invalidate(job);
+		readYourWritesTracker.recordWrite(jobId, job.getUserId());
+		return new UploadResponse(jobId, "CANCELLED", "Job cancelled.");
+	}
+
+	private Job newJob(String jobId, String userId, String originalFilename, String originalPath, String mimeType,
+			long size, OcrProfile ocrProfile, String status) {
 		Job job = new Job();
 		job.setId(jobId);
 		job.setUserId(userId); // Associate job with user
 		job.setOriginal_filename(originalFilename);
-		job.setOriginal_gcs_path(originalGcsPath);
-		job.setStatus("UPLOADED"); // Initial status
+		job.setOriginal_gcs_path(originalPath);
+		job.setStatus(status); // Initial status
 		job.setFileType(FILE_EXTENSION_TO_CATEGORY_MAP.get(mimeType)); // 'image' or 'pdf'
 		job.setMimeType(mimeType);
+		job.setFileSize(size);
+		job.setEstimatedPages((int) uploadRateLimiter.estimatePages(job.getFileType(), size));
+		job.setOcrModel(ocrProfile.getModel());
+		job.setOcrLanguages(ocrProfile.getLanguages());
+		job.setOcrPageSegMode(ocrProfile.getPageSegMode());
+		job.setOcrDpi(ocrProfile.getDpi());
 		job.setCreatedAt(Instant.now());
 		job.setUpdatedAt(Instant.now());
 		// processedGcsPath, errorMessage will be null initially
+		return job;
+	}
 
-		jobRepository.save(job);
-
-		// --- 5. Publish Message to Pub/Sub ---
-		// The worker service will consume this message to start processing
-		pubSubPublisherService.publishProcessingRequest(jobId, originalGcsPath, userId);
+	private void validateMimeType(String mimeType) {
+		if (mimeType == null || !FILE_EXTENSION_TO_CATEGORY_MAP.containsKey(mimeType)) {
+			throw new InvalidFileException("Unsupported file type: " + (mimeType != null ? mimeType : "unknown")
+					+ ". Only images (JPEG, PNG, GIF, BMP, WebP) and PDFs are allowed.");
+		}
+	}
 
-		return new UploadResponse(jobId, "UPLOADED", "File received and processing initiated.");
+	// Rejects OCR settings the worker could not honour; null fields are left to the worker's defaults
+	static void validateOcrProfile(OcrProfile profile) {
+		if (profile.getModel() != null && !OCR_MODELS.contains(profile.getModel())) {
+			throw new InvalidRequestException("Unsupported OCR model: " + profile.getModel() + ". Use fast or best.");
+		}
+		if (profile.getLanguages() != null && !OCR_LANGUAGES.matcher(profile.getLanguages()).matches()) {
+			throw new InvalidRequestException("Invalid OCR languages: " + profile.getLanguages());
+		}
+		if (profile.getPageSegMode() != null && (profile.getPageSegMode() < 0 || profile.getPageSegMode() > 13)) {
+			throw new InvalidRequestException("Page segmentation mode must be between 0 and 13.");
+		}
+		if (profile.getDpi() != null && (profile.getDpi() < 70 || profile.getDpi() > 600)) {
+			throw new InvalidRequestException("DPI must be between 70 and 600.");
+		}
 	}
 
 	// Helper to extract file extension (e.g., "pdf" from "document.pdf")
@@ -115,22 +311,113 @@ public class JobService {
 		return (dotIndex == -1) ? filename : filename.substring(0, dotIndex);
 	}
 
-	@Transactional(readOnly = true)
-	public JobStatusResponse getJobStatus(String jobId) {
-		Job job = jobRepository.findById(jobId)
-				.orElseThrow(() -> new JobNotFoundException("Job with ID " + jobId + " not found."));
+	/**
+	 * @param includeText Whether to include the full text of a completed job whose result is small
+	 *        enough to be stored inline; larger results are only available through downloadUrl.
+	 */
+	public JobStatusResponse getJobStatus(String jobId, boolean includeText) {
+		Job job = findJob(jobId);
 
 		// Map job entity to DTO and return
-		return mapJobToJobStatusResponse(job);
+		JobStatusResponse response = mapJobToJobStatusResponse(job);
+		if (includeText && isInline(job.getStatus(), job.getProcessed_gcs_path())) {
+			response.setText(jobTextRepository.findById(jobId).map(JobText::getContent).orElse(null));
+		}
+		return response;
+	}
+
+	/**
+	 * Returns the full text of a completed job stored inline, or null if the job's text is in storage.
+	 */
+	public String getInlineText(String jobId) {
+		Job job = findJob(jobId);
+		if (!isInline(job.getStatus(), job.getProcessed_gcs_path())) {
+			return null;
+		}
+		return jobTextRepository.findById(jobId).map(JobText::getContent)
+				.orElseThrow(() -> new InvalidFileException("Processed text of job " + jobId + " is not available."));
+	}
+
+	// Small results are kept in job_texts by the worker and have no processed object in storage
+	private static boolean isInline(String status, String processedPath) {
+		return "COMPLETED".equals(status) && processedPath == null;
+	}
+
+	// Inline results are served by this service, so their URL needs no signing
+	private static String inlineDownloadUrl(String jobId) {
+		return "/api/v1/jobs/" + jobId + "/download";
+	}
+
+	/**
+	 * Returns the ETag of the job's status response, from the cached snapshot if there is one
+	 * and otherwise from a projection of the version columns, without building the response.
+	 */
+	public String getJobStatusETag(String jobId, boolean includeText) {
+		// Responses with and without the text are different representations
+		String suffix = includeText ? "-text" : "";
+		Job cached = jobCache.getIfPresent(jobId);
+		if (cached != null) {
+			return eTag(cached.getStatus(), cached.getUpdatedAt(), Instant.now()) + suffix;
+		}
+		JobVersion version = jobRepository.findVersionById(jobId)
+				.orElseThrow(() -> new JobNotFoundException("Job with ID " + jobId + " not found."));
+		return eTag(version.getStatus(), version.getUpdatedAt(), Instant.now()) + suffix;
+	}
+
+	/**
+	 * Returns a combined ETag for a page of recent jobs, computed from the version columns only.
+	 */
+	public String getRecentJobsETag(int page, int size) {
+		Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+		StringBuilder versions = new StringBuilder();
+		Instant now = Instant.now();
+		for (JobVersion version : jobRepository.findAllProjectedBy(pageable)) {
+			versions.append(version.getId()).append(':')
+					.append(eTag(version.getStatus(), version.getUpdatedAt(), now)).append(';');
+		}
+		return DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns the ETag of the ?userId= response, which only carries the latest job's id and status.
+	 */
+	public String getJobStatusByUserIdETag(String userId) {
+		Job job = jobCache.getLatestForUser(userId);
+		if (job == null) {
+			throw new JobNotFoundException("No jobs found for user " + userId + ".");
+		}
+		return job.getId() + "-" + job.getStatus();
+	}
+
+	// A job's representation only changes with its status and updatedAt, plus the signed URL of a completed job
+	static String eTag(String status, Instant updatedAt, Instant now) {
+		String eTag = status + "-" + (updatedAt != null ? updatedAt.toEpochMilli() : 0);
+		if ("COMPLETED".equals(status)) {
+			eTag += "-" + now.getEpochSecond() / DOWNLOAD_URL_REFRESH.getSeconds();
+		}
+		return eTag;
+	}
+
+	// Served from JobCache; the returned job is a read-only snapshot
+	private Job findJob(String jobId) {
+		Job job = jobCache.get(jobId);
+		if (job == null) {
+			throw new JobNotFoundException("Job with ID " + jobId + " not found.");
+		}
+		return job;
 	}
 
 	private JobStatusResponse mapJobToJobStatusResponse(Job job) {
+		String downloadUrl = null;
+		// Only provide download URL if job is completed; inline results are downloaded from this service
+		if (isInline(job.getStatus(), job.getProcessed_gcs_path())) {
+			downloadUrl = inlineDownloadUrl(job.getId());
+		} else if ("COMPLETED".equals(job.getStatus())) {
+			downloadUrl = blobStore.getPublicDownloadUrl(job.getProcessed_gcs_path());
+		}
 		return new JobStatusResponse(job.getId(),job.getUserId(), job.getStatus(), job.getOriginal_filename(), job.getError_message(),
-				job.getCreatedAt(),
-				// Only provide download URL if job is completed and path exists
-				job.getStatus().equals("COMPLETED") && job.getProcessed_gcs_path() != null
-						? gcsService.getPublicDownloadUrl(job.getProcessed_gcs_path())
-						: null);
+				job.getCreatedAt(), downloadUrl, job.getPageCount(), job.getBlankPages(),
+				job.getExtracted_text_preview(), null);
 	}
 	
 	@Transactional(readOnly = true)
@@ -146,17 +433,17 @@ public class JobService {
                 .map(this::mapJobToJobStatusResponse) // Reuse the mapping helper
                 .collect(Collectors.toList());
     }
-	@Transactional(readOnly = true)
     public UploadResponse getJobStatusByUserId(String userId) {
 		
-		Job job = jobRepository.findTopByUserIdOrderByCreatedAtDesc(userId);	
+		Job job = jobCache.getLatestForUser(userId);
+		if (job == null) {
+			throw new JobNotFoundException("No jobs found for user " + userId + ".");
+		}
 		UploadResponse response = new UploadResponse(job.getId(), job.getStatus(), "Job status retrieved successfully.");
 		return response;
 	}
-	@Transactional(readOnly = true)
 	public String getDownloadUrl(String jobId) {
-		Job job = jobRepository.findById(jobId)
-				.orElseThrow(() -> new JobNotFoundException("Job with ID " + jobId + " not found."));
+		Job job = findJob(jobId);
 
 		if (!"COMPLETED".equals(job.getStatus()) || job.getProcessed_gcs_path() == null) {
 			// Throw a more specific exception if the file isn't ready
@@ -164,8 +451,55 @@ public class JobService {
 					"Job with ID " + jobId + " is not yet completed or processed file is not available.");
 		}
 
-		// Use GcsService to generate the public download URL
-		return gcsService.getPublicDownloadUrl(job.getProcessed_gcs_path());
+		// Use the BlobStore to generate the public download URL
+		return blobStore.getPublicDownloadUrl(job.getProcessed_gcs_path());
+	}
+
+	/**
+	 * Looks up the status of many jobs with one query over the columns the response needs.
+	 * Download URLs of completed jobs are signed in parallel on the urlSigningExecutor.
+	 *
+	 * @param jobIds Up to MAX_BATCH_GET_JOB_IDS job ids; duplicates are ignored.
+	 * @return The found jobs in request order, and the ids that do not exist.
+	 */
+	public BatchGetJobStatusResponse getJobStatuses(List<String> jobIds) {
+		if (jobIds == null || jobIds.isEmpty()) {
+			throw new InvalidRequestException("jobIds must not be empty.");
+		}
+		Set<String> uniqueIds = new LinkedHashSet<>(jobIds);
+		if (uniqueIds.size() > MAX_BATCH_GET_JOB_IDS) {
+			throw new InvalidRequestException("At most " + MAX_BATCH_GET_JOB_IDS + " job ids can be looked up at once.");
+		}
+
+		Map<String, JobStatusView> views = new HashMap<>();
+		for (JobStatusView view : jobRepository.findStatusViewsByIdIn(uniqueIds)) {
+			views.put(view.getId(), view);
+		}
+
+		List<CompletableFuture<JobStatusResponse>> responses = new ArrayList<>();
+		List<String> notFound = new ArrayList<>();
+		for (String jobId : uniqueIds) {
+			JobStatusView view = views.get(jobId);
+			if (view == null) {
+				notFound.add(jobId);
+			} else if (isInline(view.getStatus(), view.getProcessedPath())) {
+				responses.add(CompletableFuture.completedFuture(mapViewToJobStatusResponse(view, inlineDownloadUrl(jobId))));
+			} else if ("COMPLETED".equals(view.getStatus())) {
+				responses.add(CompletableFuture.supplyAsync(
+						() -> mapViewToJobStatusResponse(view, blobStore.getPublicDownloadUrl(view.getProcessedPath())),
+						urlSigningExecutor));
+			} else {
+				responses.add(CompletableFuture.completedFuture(mapViewToJobStatusResponse(view, null)));
+			}
+		}
+		return new BatchGetJobStatusResponse(
+				responses.stream().map(CompletableFuture::join).collect(Collectors.toList()), notFound);
+	}
+
+	private JobStatusResponse mapViewToJobStatusResponse(JobStatusView view, String downloadUrl) {
+		return new JobStatusResponse(view.getId(), view.getUserId(), view.getStatus(), view.getOriginalFilename(),
+				view.getErrorMessage(), view.getCreatedAt(), downloadUrl, view.getPageCount(), view.getBlankPages(),
+				view.getTextPreview(), null);
 	}
 
-}
\ No newline at end of file
+}
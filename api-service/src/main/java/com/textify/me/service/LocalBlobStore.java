@@ -0,0 +1,130 @@
+package com.textify.me.service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriUtils;
+
+import com.textify.me.exception.InvalidRequestException;
+
+/**
+ * Filesystem-backed BlobStore for on-prem deployments (local NVMe or a shared NFS volume)
+ * and for running the services offline. Each bucket is a directory under the storage root.
+ */
+@Service
+@ConditionalOnProperty(name = "textify.storage.backend", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    static final String SCHEME = "local";
+
+    private final Path root;
+    private final String rawUploadsBucketName;
+    private final String publicBaseUrl; // e.g. a static file server in front of the storage root
+
+    public LocalBlobStore(@Value("${textify.storage.local.root}") String root,
+            @Value("${spring.cloud.gcp.storage.bucket-name.raw-uploads}") String rawUploadsBucketName,
+            @Value("${textify.storage.local.public-base-url}") String publicBaseUrl) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.rawUploadsBucketName = rawUploadsBucketName;
+        this.publicBaseUrl = publicBaseUrl.endsWith("/") ? publicBaseUrl : publicBaseUrl + "/";
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file, String blobName) {
+        Path target = resolve(rawUploadsBucketName, blobName);
+        try {
+            Files.createDirectories(target.getParent());
+            // Stream the part straight into the target file's channel instead of buffering the
+            // whole upload on the heap with file.getBytes().
+            try (ReadableByteChannel in = Channels.newChannel(file.getInputStream());
+                    FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long size = file.getSize();
+                long position = 0;
+                while (position < size) {
+                    long transferred = out.transferFrom(in, position, size - position);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+            }
+            return BlobPath.of(SCHEME, rawUploadsBucketName, blobName).toString();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file locally: " + file.getOriginalFilename(), e);
+        }
+    }
+
+    @Override
+    public String getPublicDownloadUrl(String path) {
+        BlobPath blobPath = BlobPath.parse(path);
+        if (!SCHEME.equals(blobPath.getScheme())) {
+            throw new IllegalArgumentException("Invalid local storage path format: " + path);
+        }
+        return publicBaseUrl + UriUtils.encodePath(blobPath.getBucket() + "/" + blobPath.getObjectName(),
+                StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public SignedUpload createSignedUpload(String blobName, String contentType, long maxSize, Duration validity) {
+        // Nothing on a plain filesystem can verify a signed PUT; uploads go through /upload instead
+        throw new InvalidRequestException("Direct uploads are not supported by the local storage backend. Use /upload.");
+    }
+
+    @Override
+    public String getRawUploadPath(String blobName) {
+        return BlobPath.of(SCHEME, rawUploadsBucketName, blobName).toString();
+    }
+
+    @Override
+    public BlobMetadata getMetadata(String path) {
+        BlobPath blobPath = BlobPath.parse(path);
+        if (!SCHEME.equals(blobPath.getScheme())) {
+            throw new IllegalArgumentException("Invalid local storage path format: " + path);
+        }
+        Path file = resolve(blobPath.getBucket(), blobPath.getObjectName());
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return new BlobMetadata(Files.size(file), Files.probeContentType(file));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file metadata from local storage: " + path, e);
+        }
+    }
+
+    @Override
+    public void delete(String path) {
+        BlobPath blobPath = BlobPath.parse(path);
+        if (!SCHEME.equals(blobPath.getScheme())) {
+            throw new IllegalArgumentException("Invalid local storage path format: " + path);
+        }
+        try {
+            Files.deleteIfExists(resolve(blobPath.getBucket(), blobPath.getObjectName()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete file from local storage: " + path, e);
+        }
+    }
+
+    // Resolves bucket/blob under the storage root, rejecting names that escape it (e.g. "../")
+    private Path resolve(String bucket, String blobName) {
+        Path bucketRoot = root.resolve(bucket).normalize();
+        Path target = bucketRoot.resolve(blobName).normalize();
+        if (!target.startsWith(bucketRoot)) {
+            throw new IllegalArgumentException("Invalid blob name: " + blobName);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,126 @@
+package com.textify.me.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the monthly partitions of processing_jobs (see V2__partition_processing_jobs.sql):
+ * splits p_future so partitions exist a few months ahead, and drops old partitions once
+ * JobArchiver has emptied them, which is far cheaper than deleting their rows. Runs at startup
+ * too, so the partitions of the current month exist from the first upload after the migration.
+ */
+@Service
+@ConditionalOnProperty(name = "textify.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintainer.class);
+    private static final String HISTORY_PARTITION = "p_history";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration retention;
+    private final int partitionsAhead;
+
+    public PartitionMaintainer(JdbcTemplate jdbcTemplate,
+                               @Value("${textify.archive.retention:P30D}") Duration retention,
+                               @Value("${textify.archive.partitions-ahead:3}") int partitionsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = retention;
+        this.partitionsAhead = partitionsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${textify.archive.partition-cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        Instant now = Instant.now();
+        try {
+            addFuturePartitions(now);
+            dropEmptyExpiredPartitions(now);
+        } catch (DataAccessException e) {
+            // Another instance may be doing the same; the next run picks up whatever is left
+            logger.warn("Partition maintenance for processing_jobs failed: {}", e.getMessage());
+        }
+    }
+
+    void addFuturePartitions(Instant now) {
+        List<Map<String, Object>> partitions = partitions();
+        if (partitions.isEmpty()) {
+            return; // table not partitioned (yet)
+        }
+        YearMonth month = YearMonth.from(now.atZone(ZoneOffset.UTC));
+        LocalDate highestBound = null;
+        for (Map<String, Object> partition : partitions) {
+            if (!FUTURE_PARTITION.equals(partition.get("PARTITION_NAME"))) {
+                highestBound = upperBound(partition);
+            }
+        }
+        if (highestBound == null) {
+            // First run after V2: whatever was created before this month becomes p_history
+            highestBound = month.atDay(1);
+            jdbcTemplate.execute("ALTER TABLE processing_jobs REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+                    + "PARTITION " + HISTORY_PARTITION + " VALUES LESS THAN ('" + highestBound + "'), "
+                    + "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            logger.info("Split processing_jobs created before {} off into {}.", highestBound, HISTORY_PARTITION);
+        }
+        for (int i = 0; i <= partitionsAhead; i++, month = month.plusMonths(1)) {
+            LocalDate bound = month.plusMonths(1).atDay(1);
+            if (!bound.isAfter(highestBound)) {
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE processing_jobs REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+                    + "PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN ('" + bound + "'), "
+                    + "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            highestBound = bound;
+            logger.info("Added partition {} to processing_jobs.", month.format(PARTITION_NAME));
+        }
+    }
+
+    void dropEmptyExpiredPartitions(Instant now) {
+        LocalDate cutoff = LocalDate.ofInstant(now.minus(retention), ZoneOffset.UTC);
+        List<Map<String, Object>> partitions = partitions();
+        // Never drop the last bounded partition, so p_future is not the only one left
+        for (int i = 0; i < partitions.size() - 2; i++) {
+            Map<String, Object> partition = partitions.get(i);
+            String name = (String) partition.get("PARTITION_NAME");
+            if (upperBound(partition).isAfter(cutoff)) {
+                break;
+            }
+            Integer rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM processing_jobs PARTITION (" + name + ")", Integer.class);
+            if (rows != null && rows == 0) {
+                jdbcTemplate.execute("ALTER TABLE processing_jobs DROP PARTITION " + name);
+                logger.info("Dropped empty partition {} of processing_jobs.", name);
+            }
+        }
+    }
+
+    private List<Map<String, Object>> partitions() {
+        return jdbcTemplate.queryForList("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'processing_jobs' AND PARTITION_NAME IS NOT NULL "
+                + "ORDER BY PARTITION_ORDINAL_POSITION");
+    }
+
+    // PARTITION_DESCRIPTION of a RANGE COLUMNS partition looks like '2026-11-01 00:00:00.000000'
+    private static LocalDate upperBound(Map<String, Object> partition) {
+        String description = ((String) partition.get("PARTITION_DESCRIPTION")).replace("'", "");
+        return LocalDate.parse(description.substring(0, 10));
+    }
+}
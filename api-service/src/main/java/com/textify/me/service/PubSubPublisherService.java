@@ -11,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -22,10 +23,12 @@ import com.google.cloud.pubsub.v1.Publisher;
 import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.PubsubMessage;
 import com.google.pubsub.v1.TopicName;
+import com.textify.me.dto.ProcessingRequestPayload;
 
 
 @Service
-public class PubSubPublisherService {
+@ConditionalOnProperty(name = "textify.queue.backend", havingValue = "pubsub", matchIfMissing = true)
+public class PubSubPublisherService implements JobQueue {
     
     private static final Logger logger = LoggerFactory.getLogger(PubSubPublisherService.class);
     private final ObjectMapper objectMapper;
@@ -65,27 +68,15 @@ public class PubSubPublisherService {
         }
     }
 
-    // Inner DTO for Pub/Sub payload - should match worker-service's ProcessingRequestPayload
-    private static class PublishingPayload {
-        public String jobId;
-        public String originalGcsPath;
-        public String userId;
-
-        public PublishingPayload(String jobId, String originalGcsPath,String userId) {
-            this.jobId = jobId;
-            this.originalGcsPath = originalGcsPath;
-            this.userId = userId;
-        }
-    }
-
     /**
      * Publishes a message to Google Cloud Pub/Sub asynchronously.
      * The result (success/failure) is handled by an asynchronous callback on a dedicated executor.
      *
-     * @param jobId The ID of the job to process.
-     * @param originalGcsPath The GCS path of the original file.
+     * @param request The job ID, original GCS path and user of the job to process.
      */
-    public void publishProcessingRequest(String jobId, String originalGcsPath, String userId) {
+    @Override
+    public void publishProcessingRequest(ProcessingRequestPayload request) {
+        String jobId = request.getJobId();
         // Defensive check: ensure the publisher was initialized successfully
         if (publisher == null) {
             logger.error("Pub/Sub Publisher is not initialized. Cannot publish message for job ID: {}. Application startup likely failed.", jobId);
@@ -93,9 +84,8 @@ public class PubSubPublisherService {
         }
 
         try {
-            // Create the payload object and serialize it to JSON
-            PublishingPayload payload = new PublishingPayload(jobId, originalGcsPath, userId);
-            String jsonPayload = objectMapper.writeValueAsString(payload);
+            // Serialize the payload to JSON
+            String jsonPayload = objectMapper.writeValueAsString(request);
 
             // Build the PubsubMessage with the JSON payload
             PubsubMessage pubsubMessage = PubsubMessage.newBuilder()
@@ -0,0 +1,33 @@
+package com.textify.me.service;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * /actuator/ratelimits shows the global upload and page buckets;
+ * /actuator/ratelimits/{userId} shows one user's buckets and queue depth.
+ */
+@Component
+@Endpoint(id = "ratelimits")
+public class RateLimitEndpoint {
+
+    private final UploadRateLimiter uploadRateLimiter;
+
+    public RateLimitEndpoint(UploadRateLimiter uploadRateLimiter) {
+        this.uploadRateLimiter = uploadRateLimiter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> levels() {
+        return uploadRateLimiter.globalLevels();
+    }
+
+    @ReadOperation
+    public Map<String, Object> userLevels(@Selector String userId) {
+        return uploadRateLimiter.userLevels(userId);
+    }
+}
@@ -0,0 +1,39 @@
+package com.textify.me.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Remembers the jobs and users written by this instance in the last few seconds, so their
+ * reads can be pinned to the primary until the replica has caught up with the write.
+ */
+@Service
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWritesTracker(@Value("${textify.datasource.read-your-writes-window:PT5S}") Duration window) {
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void recordWrite(String jobId, String userId) {
+        recentWrites.put("job:" + jobId, Boolean.TRUE);
+        recentWrites.put("user:" + userId, Boolean.TRUE);
+    }
+
+    /**
+     * Whether the job or user (either may be null) was written within the window.
+     */
+    public boolean hasRecentWrite(String jobId, String userId) {
+        return (jobId != null && recentWrites.getIfPresent("job:" + jobId) != null)
+                || (userId != null && recentWrites.getIfPresent("user:" + userId) != null);
+    }
+}
@@ -0,0 +1,33 @@
+package com.textify.me.service;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A signed URL a client can PUT a raw file to directly, with the headers the PUT must carry
+ * (the signature covers them, so a different content type or an oversized body is rejected).
+ */
+public final class SignedUpload {
+
+    private final String url;
+    private final Map<String, String> headers;
+    private final Instant expiresAt;
+
+    public SignedUpload(String url, Map<String, String> headers, Instant expiresAt) {
+        this.url = url;
+        this.headers = headers;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
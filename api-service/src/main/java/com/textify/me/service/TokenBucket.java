@@ -0,0 +1,60 @@
+package com.textify.me.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept as a single timestamp: the time at which the bucket will be full
+ * again (the generic cell rate algorithm). Taking tokens pushes that time forward by their
+ * refill time, with one compare-and-set, and is refused while it would land more than a full
+ * bucket's refill time in the future.
+ */
+final class TokenBucket {
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(long capacity, double tokensPerMinute) {
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, (long) (60_000_000_000L / tokensPerMinute));
+        this.burstNanos = capacity * nanosPerToken;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes the tokens if the bucket holds them. Requests for more than the capacity take a full
+     * bucket, so a large request is throttled rather than refused forever.
+     *
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until they will be available.
+     */
+    long tryAcquire(long tokens) {
+        long cost = Math.min(tokens, capacity) * nanosPerToken;
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Returns tokens taken for a request that was refused by a later check
+    void refund(long tokens) {
+        fullAt.addAndGet(-Math.min(tokens, capacity) * nanosPerToken);
+    }
+
+    double available() {
+        long pending = Math.max(0, fullAt.get() - System.nanoTime());
+        return Math.max(0, (burstNanos - pending) / (double) nanosPerToken);
+    }
+
+    long getCapacity() {
+        return capacity;
+    }
+}
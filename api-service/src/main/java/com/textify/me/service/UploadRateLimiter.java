@@ -0,0 +1,200 @@
+package com.textify.me.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.textify.me.exception.RateLimitedException;
+import com.textify.me.repository.JobRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admission control for new jobs. Uploads and their estimated pages are drawn from token
+ * buckets per user and for the whole service, so one client's burst is throttled before it
+ * reaches storage, the database or the queue. Each user can also hold at most max-queued-jobs
+ * jobs that are waiting for or in OCR. Refused requests get a 429 with Retry-After.
+ * Buckets live in this instance's memory; with several api instances the limits apply per instance.
+ */
+@Service
+public class UploadRateLimiter {
+
+    private static final List<String> QUEUED_STATUSES = List.of("UPLOADED", "PROCESSING");
+
+    private final JobRepository jobRepository;
+    private final boolean enabled;
+    private final long userUploadBurst;
+    private final double userUploadsPerMinute;
+    private final long userPageBurst;
+    private final double userPagesPerMinute;
+    private final long maxQueuedJobs;
+    private final Duration queueFullRetryAfter;
+    private final long bytesPerPdfPage;
+    private final TokenBucket globalUploads;
+    private final TokenBucket globalPages;
+    private final Cache<String, UserBuckets> userBuckets;
+    private final MeterRegistry meterRegistry;
+
+    public UploadRateLimiter(JobRepository jobRepository, MeterRegistry meterRegistry,
+                             @Value("${textify.ratelimit.enabled:true}") boolean enabled,
+                             @Value("${textify.ratelimit.user.uploads-per-minute:30}") double userUploadsPerMinute,
+                             @Value("${textify.ratelimit.user.upload-burst:10}") long userUploadBurst,
+                             @Value("${textify.ratelimit.user.pages-per-minute:600}") double userPagesPerMinute,
+                             @Value("${textify.ratelimit.user.page-burst:300}") long userPageBurst,
+                             @Value("${textify.ratelimit.user.max-queued-jobs:50}") long maxQueuedJobs,
+                             @Value("${textify.ratelimit.global.uploads-per-minute:600}") double globalUploadsPerMinute,
+                             @Value("${textify.ratelimit.global.upload-burst:100}") long globalUploadBurst,
+                             @Value("${textify.ratelimit.global.pages-per-minute:12000}") double globalPagesPerMinute,
+                             @Value("${textify.ratelimit.global.page-burst:3000}") long globalPageBurst,
+                             @Value("${textify.ratelimit.queue-full-retry-after:PT30S}") Duration queueFullRetryAfter,
+                             @Value("${textify.ratelimit.bytes-per-pdf-page:100KB}") DataSize bytesPerPdfPage) {
+        this.jobRepository = jobRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.userUploadsPerMinute = userUploadsPerMinute;
+        this.userUploadBurst = userUploadBurst;
+        this.userPagesPerMinute = userPagesPerMinute;
+        this.userPageBurst = userPageBurst;
+        this.maxQueuedJobs = maxQueuedJobs;
+        this.queueFullRetryAfter = queueFullRetryAfter;
+        this.bytesPerPdfPage = bytesPerPdfPage.toBytes();
+        this.globalUploads = new TokenBucket(globalUploadBurst, globalUploadsPerMinute);
+        this.globalPages = new TokenBucket(globalPageBurst, globalPagesPerMinute);
+        // An idle user's buckets refill within minutes, after which dropping them changes nothing
+        this.userBuckets = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofMinutes(15))
+                .build();
+        Gauge.builder("textify.ratelimit.global.available", globalUploads, TokenBucket::available).tag("bucket", "uploads")
+                .description("Uploads the global bucket can admit right now").register(meterRegistry);
+        Gauge.builder("textify.ratelimit.global.available", globalPages, TokenBucket::available).tag("bucket", "pages")
+                .description("Pages the global bucket can admit right now").register(meterRegistry);
+        Gauge.builder("textify.ratelimit.users.tracked", userBuckets, Cache::estimatedSize)
+                .description("Users with rate limit buckets in memory").register(meterRegistry);
+    }
+
+    /**
+     * Admits one upload of the given size for the user, or throws RateLimitedException.
+     * Tokens taken from earlier buckets are returned when a later one refuses.
+     *
+     * @param fileType 'pdf' or 'image', as stored on the job.
+     */
+    public void admit(String userId, String fileType, long sizeBytes) {
+        if (!enabled) {
+            return;
+        }
+        long pages = estimatePages(fileType, sizeBytes);
+        UserBuckets user = userBuckets.get(userId, id -> new UserBuckets());
+
+        long wait = user.uploads.tryAcquire(1);
+        if (wait > 0) {
+            throw rejected("user-uploads", "Too many uploads for user " + userId + ".", wait);
+        }
+        wait = user.pages.tryAcquire(pages);
+        if (wait > 0) {
+            user.uploads.refund(1);
+            throw rejected("user-pages", "Too many pages queued for user " + userId + ".", wait);
+        }
+        wait = globalUploads.tryAcquire(1);
+        if (wait > 0) {
+            user.refund(pages);
+            throw rejected("global-uploads", "The service is receiving too many uploads.", wait);
+        }
+        wait = globalPages.tryAcquire(pages);
+        if (wait > 0) {
+            globalUploads.refund(1);
+            user.refund(pages);
+            throw rejected("global-pages", "The service is receiving too many pages.", wait);
+        }
+        // The database check comes last so throttled requests never reach it
+        try {
+            checkQueueDepth(userId);
+        } catch (RateLimitedException e) {
+            globalUploads.refund(1);
+            globalPages.refund(pages);
+            user.refund(pages);
+            throw e;
+        }
+    }
+
+    /**
+     * Throws RateLimitedException if the user already has max-queued-jobs jobs waiting for or in OCR.
+     */
+    public void checkQueueDepth(String userId) {
+        if (!enabled || maxQueuedJobs <= 0) {
+            return;
+        }
+        if (jobRepository.countByUserIdAndStatusIn(userId, QUEUED_STATUSES) >= maxQueuedJobs) {
+            throw rejected("queue-depth", "User " + userId + " already has " + maxQueuedJobs
+                    + " jobs queued; wait for some to finish.", queueFullRetryAfter.toNanos());
+        }
+    }
+
+    // Pages are not known until the worker opens the file; PDFs are estimated from their size
+    public long estimatePages(String fileType, long sizeBytes) {
+        if (!"pdf".equals(fileType)) {
+            return 1;
+        }
+        return Math.max(1, sizeBytes / bytesPerPdfPage);
+    }
+
+    /**
+     * Current global bucket levels, for the ratelimits actuator endpoint.
+     */
+    public Map<String, Object> globalLevels() {
+        Map<String, Object> levels = new LinkedHashMap<>();
+        levels.put("enabled", enabled);
+        levels.put("uploads", level(globalUploads));
+        levels.put("pages", level(globalPages));
+        levels.put("trackedUsers", userBuckets.estimatedSize());
+        return levels;
+    }
+
+    /**
+     * Current bucket levels and queue depth of one user, for the ratelimits actuator endpoint.
+     */
+    public Map<String, Object> userLevels(String userId) {
+        UserBuckets user = userBuckets.getIfPresent(userId);
+        Map<String, Object> levels = new LinkedHashMap<>();
+        levels.put("userId", userId);
+        // A user without buckets has not uploaded recently, so theirs would be full
+        levels.put("uploads", user != null ? level(user.uploads) : Map.of("available", userUploadBurst, "capacity", userUploadBurst));
+        levels.put("pages", user != null ? level(user.pages) : Map.of("available", userPageBurst, "capacity", userPageBurst));
+        levels.put("queuedJobs", jobRepository.countByUserIdAndStatusIn(userId, QUEUED_STATUSES));
+        levels.put("maxQueuedJobs", maxQueuedJobs);
+        return levels;
+    }
+
+    private static Map<String, Object> level(TokenBucket bucket) {
+        return Map.of("available", (long) bucket.available(), "capacity", bucket.getCapacity());
+    }
+
+    private RateLimitedException rejected(String reason, String message, long waitNanos) {
+        Counter.builder("textify.ratelimit.rejected").tag("reason", reason)
+                .description("Uploads refused with 429 by admission control")
+                .register(meterRegistry).increment();
+        // Retry-After is in whole seconds; rounding down would invite a retry that is refused again
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        return new RateLimitedException(message, Duration.ofSeconds(seconds));
+    }
+
+    private class UserBuckets {
+        private final TokenBucket uploads = new TokenBucket(userUploadBurst, userUploadsPerMinute);
+        private final TokenBucket pages = new TokenBucket(userPageBurst, userPagesPerMinute);
+
+        void refund(long pageCount) {
+            uploads.refund(1);
+            pages.refund(pageCount);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+-- Baseline schema, matching what spring.jpa.hibernate.ddl-auto=update produced for the
+-- entities before Flyway took over. Existing databases are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and skip this script.
+
+CREATE TABLE processing_jobs (
+    id                     VARCHAR(255) NOT NULL,
+    user_id                VARCHAR(255),
+    original_filename      VARCHAR(255),
+    original_gcs_path      VARCHAR(255),
+    processed_gcs_path     VARCHAR(255),
+    status                 VARCHAR(255),
+    file_type              VARCHAR(255),
+    mime_type              VARCHAR(255),
+    extracted_text_preview VARCHAR(255),
+    error_message          VARCHAR(255),
+    ocr_model              VARCHAR(255),
+    ocr_languages          VARCHAR(255),
+    ocr_page_seg_mode      INT,
+    ocr_dpi                INT,
+    page_count             INT,
+    blank_pages            INT,
+    created_at             DATETIME(6),
+    updated_at             DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE job_queue (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    job_id      VARCHAR(255) NOT NULL,
+    payload     TEXT         NOT NULL,
+    attempts    INT          NOT NULL,
+    enqueued_at DATETIME(6)  NOT NULL,
+    visible_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_job_queue_visible_at ON job_queue (visible_at);
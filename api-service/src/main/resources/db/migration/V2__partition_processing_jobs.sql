@@ -0,0 +1,48 @@
+-- Range-partition processing_jobs by month of created_at, so old months can be dropped as a
+-- whole once JobArchiver has moved their finished jobs to processing_jobs_archive.
+-- MySQL requires the partitioning column in every unique key, hence the (id, created_at) key;
+-- lookups by id still use its leftmost prefix. The table starts out with p_future only, since the
+-- cut-over date is not known here: at startup PartitionMaintainer splits everything created before
+-- the current month off into p_history, then splits p_future into monthly partitions ahead of time.
+
+UPDATE processing_jobs SET created_at = COALESCE(updated_at, NOW(6)) WHERE created_at IS NULL;
+
+ALTER TABLE processing_jobs
+    MODIFY created_at DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+CREATE INDEX idx_processing_jobs_user_created ON processing_jobs (user_id, created_at);
+CREATE INDEX idx_processing_jobs_status_created ON processing_jobs (status, created_at);
+CREATE INDEX idx_processing_jobs_created ON processing_jobs (created_at);
+
+ALTER TABLE processing_jobs
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p_future VALUES LESS THAN (MAXVALUE)
+    );
+
+-- Finished jobs past the retention window; same columns plus when they were archived
+CREATE TABLE processing_jobs_archive (
+    id                     VARCHAR(255) NOT NULL,
+    user_id                VARCHAR(255),
+    original_filename      VARCHAR(255),
+    original_gcs_path      VARCHAR(255),
+    processed_gcs_path     VARCHAR(255),
+    status                 VARCHAR(255),
+    file_type              VARCHAR(255),
+    mime_type              VARCHAR(255),
+    extracted_text_preview VARCHAR(255),
+    error_message          VARCHAR(255),
+    ocr_model              VARCHAR(255),
+    ocr_languages          VARCHAR(255),
+    ocr_page_seg_mode      INT,
+    ocr_dpi                INT,
+    page_count             INT,
+    blank_pages            INT,
+    created_at             DATETIME(6) NOT NULL,
+    updated_at             DATETIME(6),
+    archived_at            DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_processing_jobs_archive_user ON processing_jobs_archive (user_id, created_at);
@@ -0,0 +1,8 @@
+-- Worker leases on jobs. A worker owns a job while lease_expires_at is in the future and
+-- renews it with a heartbeat; JobLeaseSweeper requeues PROCESSING jobs whose lease ran out.
+
+ALTER TABLE processing_jobs
+    ADD COLUMN lease_owner      VARCHAR(255),
+    ADD COLUMN lease_expires_at DATETIME(6);
+
+CREATE INDEX idx_processing_jobs_status_lease ON processing_jobs (status, lease_expires_at);
@@ -0,0 +1,20 @@
+-- Attempt bookkeeping for poison-message handling. processing_jobs.attempts counts the
+-- deliveries a worker has leased; job_failures keeps one row per job that failed for good
+-- (permanent failure, or retries exhausted and dead-lettered).
+
+ALTER TABLE processing_jobs
+    ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+
+CREATE TABLE job_failures (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    job_id        VARCHAR(255) NOT NULL,
+    user_id       VARCHAR(255),
+    reason        VARCHAR(32)  NOT NULL,
+    attempts      INT          NOT NULL,
+    error_class   VARCHAR(255),
+    error_message TEXT,
+    failed_at     DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_job_failures_job_id ON job_failures (job_id);
@@ -0,0 +1,3 @@
+-- Upload admission counts each user's queued jobs (UPLOADED/PROCESSING) on every upload.
+
+CREATE INDEX idx_processing_jobs_user_status ON processing_jobs (user_id, status);
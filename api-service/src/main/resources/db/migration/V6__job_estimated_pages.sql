@@ -0,0 +1,8 @@
+-- Page estimate made at upload (see UploadRateLimiter.estimatePages), so the backlog can be
+-- measured in pages before a worker has opened the file and set page_count.
+
+ALTER TABLE processing_jobs
+    ADD COLUMN estimated_pages INT;
+
+ALTER TABLE processing_jobs_archive
+    ADD COLUMN estimated_pages INT;
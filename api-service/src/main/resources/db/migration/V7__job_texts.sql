@@ -0,0 +1,9 @@
+-- Full extracted text of jobs whose result is small enough to serve from the database
+-- (textify.worker.output.inline-max-bytes). Such jobs have no processed object in storage;
+-- every completed job also gets processing_jobs.extracted_text_preview.
+
+CREATE TABLE job_texts (
+    job_id  VARCHAR(255) NOT NULL,
+    content MEDIUMTEXT   NOT NULL,
+    PRIMARY KEY (job_id)
+) ENGINE = InnoDB;
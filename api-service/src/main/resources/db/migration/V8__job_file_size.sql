@@ -0,0 +1,8 @@
+-- Size of the uploaded file in bytes. For direct uploads this is the size the client declared,
+-- which the signed URL and completeDirectUpload hold the stored object to.
+
+ALTER TABLE processing_jobs
+    ADD COLUMN file_size BIGINT;
+
+ALTER TABLE processing_jobs_archive
+    ADD COLUMN file_size BIGINT;
@@ -0,0 +1,106 @@
+package com.textify.me.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.textify.me.config.TransactionRoutingDataSource.Route;
+import com.textify.me.service.ReadYourWritesTracker;
+
+class TransactionRoutingDataSourceTest {
+
+    private final TransactionRoutingDataSource dataSource = new TransactionRoutingDataSource();
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+    private final ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(tracker);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionRoutingDataSource.setPinnedToPrimary(false);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(Route.REPLICA, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        assertEquals(Route.PRIMARY, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void pinnedReadsGoToThePrimaryUntilUnpinned() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        TransactionRoutingDataSource.setPinnedToPrimary(true);
+        assertEquals(Route.PRIMARY, dataSource.determineCurrentLookupKey());
+
+        TransactionRoutingDataSource.setPinnedToPrimary(false);
+        assertEquals(Route.REPLICA, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void requestsForARecentlyWrittenJobAreReadFromThePrimary() {
+        tracker.recordWrite("job-1", "user-1");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/jobs/job-1/status");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("jobId", "job-1"));
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        assertEquals(Route.PRIMARY, dataSource.determineCurrentLookupKey());
+
+        // The pin is per request and must not leak to the next request on this thread
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        assertEquals(Route.REPLICA, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void requestsForARecentlyWrittenUserAreReadFromThePrimary() {
+        tracker.recordWrite("job-1", "user-1");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/jobs");
+        request.setParameter("userId", "user-1");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertEquals(Route.PRIMARY, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void otherRequestsStayOnTheReplica() {
+        tracker.recordWrite("job-1", "user-1");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/jobs/job-2/status");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("jobId", "job-2"));
+        request.setParameter("userId", "user-2");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertEquals(Route.REPLICA, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void recentWritesAreForgottenAfterTheWindow() throws InterruptedException {
+        ReadYourWritesTracker shortWindow = new ReadYourWritesTracker(Duration.ofMillis(50));
+        shortWindow.recordWrite("job-1", "user-1");
+        assertTrue(shortWindow.hasRecentWrite("job-1", null));
+        assertTrue(shortWindow.hasRecentWrite(null, "user-1"));
+
+        Thread.sleep(200);
+
+        assertFalse(shortWindow.hasRecentWrite("job-1", "user-1"));
+    }
+}
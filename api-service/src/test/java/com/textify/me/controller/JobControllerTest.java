@@ -0,0 +1,67 @@
+package com.textify.me.controller;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.textify.me.dto.JobStatusResponse;
+import com.textify.me.service.JobService;
+
+class JobControllerTest {
+
+    private static final String ETAG = "PROCESSING-1700000000000";
+
+    private final JobService jobService = mock(JobService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new JobController(jobService)).build();
+        when(jobService.getJobStatusETag("job-1", false)).thenReturn(ETAG);
+    }
+
+    @Test
+    void matchingETagGetsNotModifiedWithTheTag() throws Exception {
+        mockMvc.perform(get("/api/v1/jobs/job-1/status").header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ETAG + "\""))
+                .andExpect(content().string(""));
+
+        verify(jobService, never()).getJobStatus(anyString(), anyBoolean());
+    }
+
+    @Test
+    void staleETagGetsTheStatus() throws Exception {
+        JobStatusResponse response = new JobStatusResponse();
+        response.setJobId("job-1");
+        when(jobService.getJobStatus("job-1", false)).thenReturn(response);
+
+        mockMvc.perform(get("/api/v1/jobs/job-1/status").header(HttpHeaders.IF_NONE_MATCH, "\"UPLOADED-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ETAG + "\""));
+    }
+
+    @Test
+    void recentJobsAnswerNotModifiedToo() throws Exception {
+        when(jobService.getRecentJobsETag(0, 10)).thenReturn(ETAG);
+
+        mockMvc.perform(get("/api/v1/jobs/recent").header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ETAG + "\""));
+
+        verify(jobService, never()).getRecentJobs(0, 10);
+    }
+}
@@ -0,0 +1,37 @@
+package com.textify.me.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageOptions;
+
+class GCSServiceTest {
+
+    @Test
+    void downloadUrlsDoNotPinTheAcceptEncoding() throws NoSuchAlgorithmException {
+        // Signing is local; a throwaway key is enough and nothing is sent to GCS
+        KeyPairGenerator keys = KeyPairGenerator.getInstance("RSA");
+        keys.initialize(2048);
+        ServiceAccountCredentials credentials = ServiceAccountCredentials.newBuilder()
+                .setClientEmail("signer@textify-test.iam.gserviceaccount.com")
+                .setPrivateKey(keys.generateKeyPair().getPrivate())
+                .build();
+        Storage storage = StorageOptions.newBuilder().setProjectId("textify-test").setCredentials(credentials)
+                .build().getService();
+        GCSService gcsService = new GCSService(storage, "raw-uploads", "processed-files", "textify-test");
+
+        String url = gcsService.getPublicDownloadUrl("gs://processed-files/job-1/scan.txt");
+
+        // Only Host is signed, so the same URL is valid with or without Accept-Encoding: gzip. Results are
+        // stored gzipped; GCS decompresses them for requests without it (decompressive transcoding).
+        assertTrue(url.contains("X-Goog-SignedHeaders=host&") || url.endsWith("X-Goog-SignedHeaders=host"), url);
+        assertFalse(url.toLowerCase().contains("accept-encoding"), url);
+    }
+}
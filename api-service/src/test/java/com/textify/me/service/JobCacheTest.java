@@ -0,0 +1,48 @@
+package com.textify.me.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.textify.me.model.Job;
+
+class JobCacheTest {
+
+    private static final Duration IN_FLIGHT_TTL = Duration.ofSeconds(2);
+    private static final Duration TERMINAL_TTL = Duration.ofHours(1);
+
+    private final JobCache.StatusExpiry expiry = new JobCache.StatusExpiry(IN_FLIGHT_TTL, TERMINAL_TTL);
+
+    @Test
+    void inFlightJobsExpireAfterTheInFlightTtl() {
+        assertEquals(IN_FLIGHT_TTL.toNanos(), expiry.expireAfterCreate("id", job("UPLOADED"), 0));
+        assertEquals(IN_FLIGHT_TTL.toNanos(), expiry.expireAfterCreate("id", job("PROCESSING"), 0));
+    }
+
+    @Test
+    void terminalJobsExpireAfterTheTerminalTtl() {
+        assertEquals(TERMINAL_TTL.toNanos(), expiry.expireAfterCreate("id", job("COMPLETED"), 0));
+        assertEquals(TERMINAL_TTL.toNanos(), expiry.expireAfterCreate("id", job("FAILED"), 0));
+        assertEquals(TERMINAL_TTL.toNanos(), expiry.expireAfterCreate("id", job("CANCELLED"), 0));
+    }
+
+    @Test
+    void updatesRestartTheTtlOfTheNewStatus() {
+        assertEquals(TERMINAL_TTL.toNanos(), expiry.expireAfterUpdate("id", job("COMPLETED"), 0, 5));
+        assertEquals(IN_FLIGHT_TTL.toNanos(), expiry.expireAfterUpdate("id", job("PROCESSING"), 0, 5));
+    }
+
+    @Test
+    void readsDoNotExtendTheTtl() {
+        assertEquals(5, expiry.expireAfterRead("id", job("COMPLETED"), 0, 5));
+        assertEquals(5, expiry.expireAfterRead("id", job("PROCESSING"), 0, 5));
+    }
+
+    private static Job job(String status) {
+        Job job = new Job();
+        job.setStatus(status);
+        return job;
+    }
+}
@@ -0,0 +1,130 @@
+package com.textify.me.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.textify.me.dto.ProcessingRequestPayload;
+
+class JobLeaseSweeperTest {
+
+    private static final Duration GRACE = Duration.ofMinutes(1);
+    private static final ProcessingRequestPayload EXPIRED = new ProcessingRequestPayload("job-1", "gs://raw/job-1", "user-1", null);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final JobQueue jobQueue = mock(JobQueue.class);
+    private final JobLeaseSweeper sweeper = new JobLeaseSweeper(jdbcTemplate, transactionTemplate, jobQueue, GRACE, 100);
+    private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(call -> {
+            inTransaction.set(true);
+            try {
+                return ((TransactionCallback<Object>) call.getArgument(0)).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        });
+    }
+
+    @Test
+    void onlyLeasesExpiredForLongerThanTheGraceAreSwept() {
+        expired();
+
+        Instant before = Instant.now();
+        sweeper.sweep();
+
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate).query(anyString(), params.capture(), any(RowMapper.class));
+        Instant cutoff = ((Timestamp) params.getValue().getValue("cutoff")).toInstant();
+        assertFalse(cutoff.isBefore(before.minus(GRACE)));
+        assertTrue(cutoff.isBefore(Instant.now().minus(GRACE).plusMillis(1)));
+    }
+
+    @Test
+    void nothingExpiredMeansNothingToDo() {
+        sweeper.sweep();
+
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+        verify(jobQueue, never()).publishProcessingRequest(any());
+    }
+
+    @Test
+    void expiredJobsAreResetAndPublishedOnceTheResetCommits() {
+        expired();
+        doAnswer(call -> {
+            assertFalse(inTransaction.get(), "published before the reset committed");
+            return null;
+        }).when(jobQueue).publishProcessingRequest(EXPIRED);
+
+        sweeper.sweep();
+
+        verify(jdbcTemplate).update(argThat(sql -> sql.startsWith("UPDATE processing_jobs SET status = 'UPLOADED'")),
+                argThat((SqlParameterSource params) -> List.of("job-1").equals(params.getValue("ids"))));
+        verify(jobQueue).publishProcessingRequest(EXPIRED);
+    }
+
+    @Test
+    void transactionalQueuesGetTheRequestInTheResetTransaction() {
+        when(jobQueue.isTransactional()).thenReturn(true);
+        expired();
+        doAnswer(call -> {
+            assertTrue(inTransaction.get(), "published outside the reset transaction");
+            return null;
+        }).when(jobQueue).publishProcessingRequest(EXPIRED);
+
+        sweeper.sweep();
+
+        verify(jobQueue).publishProcessingRequest(EXPIRED);
+    }
+
+    @Test
+    void jobsThatCouldNotBePublishedAreLeftExpiredForTheNextSweep() {
+        expired();
+        doThrow(new RuntimeException("Pub/Sub unavailable")).when(jobQueue).publishProcessingRequest(EXPIRED);
+
+        sweeper.sweep();
+
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate).update(eq("UPDATE processing_jobs SET status = 'PROCESSING', lease_expires_at = :expired "
+                + "WHERE id = :id AND status = 'UPLOADED' AND lease_owner IS NULL"), params.capture());
+        assertEquals("job-1", params.getValue().getValue("id"));
+        // Already past the cutoff, so the next sweep picks the job up again
+        assertTrue(((Timestamp) params.getValue().getValue("expired")).toInstant().isBefore(Instant.now().minus(GRACE)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expired() {
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(EXPIRED));
+    }
+}
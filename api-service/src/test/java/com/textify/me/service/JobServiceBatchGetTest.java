@@ -0,0 +1,92 @@
+package com.textify.me.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+
+import com.textify.me.dto.BatchGetJobStatusResponse;
+import com.textify.me.dto.JobStatusResponse;
+import com.textify.me.exception.InvalidRequestException;
+import com.textify.me.repository.JobRepository;
+import com.textify.me.repository.JobStatusView;
+import com.textify.me.repository.JobTextRepository;
+
+class JobServiceBatchGetTest {
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final BlobStore blobStore = mock(BlobStore.class);
+    private final JobService jobService = new JobService(jobRepository, mock(JobTextRepository.class), blobStore,
+            mock(JobQueue.class), mock(JobCache.class), Runnable::run, mock(ReadYourWritesTracker.class),
+            mock(UploadRateLimiter.class), DataSize.ofMegabytes(100), Duration.ofMinutes(15));
+
+    @Test
+    void rejectsEmptyRequests() {
+        assertThrows(InvalidRequestException.class, () -> jobService.getJobStatuses(null));
+        assertThrows(InvalidRequestException.class, () -> jobService.getJobStatuses(List.of()));
+    }
+
+    @Test
+    void rejectsMoreThanFiveHundredDistinctIds() {
+        assertThrows(InvalidRequestException.class, () -> jobService.getJobStatuses(ids(501)));
+    }
+
+    @Test
+    void duplicatesDoNotCountTowardsTheLimit() {
+        List<String> jobIds = new ArrayList<>(ids(500));
+        jobIds.addAll(ids(100));
+
+        jobService.getJobStatuses(jobIds);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> queried = ArgumentCaptor.forClass(Collection.class);
+        verify(jobRepository).findStatusViewsByIdIn(queried.capture());
+        assertEquals(500, queried.getValue().size());
+    }
+
+    @Test
+    void answersInRequestOrderWithDuplicatesRemoved() {
+        // The database returns rows in its own order
+        List<JobStatusView> rows = List.of(
+                view("c", "PROCESSING", null), view("a", "COMPLETED", "gs://processed/a/a.txt"), view("b", "COMPLETED", null));
+        when(jobRepository.findStatusViewsByIdIn(anyCollection())).thenReturn(rows);
+        when(blobStore.getPublicDownloadUrl(any())).thenAnswer(call -> "https://signed/" + call.getArgument(0));
+
+        BatchGetJobStatusResponse response = jobService.getJobStatuses(List.of("b", "missing-1", "a", "b", "c", "missing-2"));
+
+        List<JobStatusResponse> jobs = response.getJobs();
+        assertEquals(List.of("b", "a", "c"), jobs.stream().map(JobStatusResponse::getJobId).collect(Collectors.toList()));
+        assertEquals(List.of("missing-1", "missing-2"), response.getNotFoundJobIds());
+        // Inline results link to this service, stored ones get a signed URL, unfinished ones none
+        assertEquals("/api/v1/jobs/b/download", jobs.get(0).getDownloadUrl());
+        assertEquals("https://signed/gs://processed/a/a.txt", jobs.get(1).getDownloadUrl());
+        assertNull(jobs.get(2).getDownloadUrl());
+    }
+
+    private static List<String> ids(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "job-" + i).collect(Collectors.toList());
+    }
+
+    private static JobStatusView view(String id, String status, String processedPath) {
+        JobStatusView view = mock(JobStatusView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getStatus()).thenReturn(status);
+        when(view.getProcessedPath()).thenReturn(processedPath);
+        return view;
+    }
+}
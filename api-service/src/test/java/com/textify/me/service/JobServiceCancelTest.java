@@ -0,0 +1,79 @@
+package com.textify.me.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.textify.me.dto.UploadResponse;
+import com.textify.me.exception.JobNotFoundException;
+import com.textify.me.model.Job;
+import com.textify.me.repository.JobRepository;
+import com.textify.me.repository.JobTextRepository;
+
+class JobServiceCancelTest {
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final JobCache jobCache = mock(JobCache.class);
+    private final ReadYourWritesTracker readYourWritesTracker = mock(ReadYourWritesTracker.class);
+    private final JobService jobService = new JobService(jobRepository, mock(JobTextRepository.class),
+            mock(BlobStore.class), mock(JobQueue.class), jobCache, Runnable::run, readYourWritesTracker,
+            mock(UploadRateLimiter.class), DataSize.ofMegabytes(100), Duration.ofMinutes(15));
+
+    @Test
+    void unfinishedJobsBecomeCancelled() {
+        Job job = job("PROCESSING");
+        when(jobRepository.markCancelled(eq("job-1"), any())).thenReturn(1);
+
+        UploadResponse response = jobService.cancelJob("job-1");
+
+        assertEquals("CANCELLED", response.getStatus());
+        // Pollers see the new status at once, from the cache and from a lagging replica alike
+        verify(jobCache).invalidate(job);
+        verify(readYourWritesTracker).recordWrite("job-1", "user-1");
+    }
+
+    @Test
+    void finishedJobsKeepTheirStatus() {
+        Job job = job("COMPLETED");
+        // markCancelled only matches PENDING_UPLOAD, UPLOADED and PROCESSING
+        when(jobRepository.markCancelled(eq("job-1"), any())).thenReturn(0);
+
+        UploadResponse response = jobService.cancelJob("job-1");
+
+        assertEquals("COMPLETED", response.getStatus());
+        verify(jobCache, never()).invalidate(job);
+    }
+
+    @Test
+    void cancellingTwiceIsHarmless() {
+        job("CANCELLED");
+        when(jobRepository.markCancelled(eq("job-1"), any())).thenReturn(0);
+
+        assertEquals("CANCELLED", jobService.cancelJob("job-1").getStatus());
+    }
+
+    @Test
+    void unknownJobsAreNotFound() {
+        assertThrows(JobNotFoundException.class, () -> jobService.cancelJob("job-1"));
+    }
+
+    private Job job(String status) {
+        Job job = new Job();
+        job.setId("job-1");
+        job.setUserId("user-1");
+        job.setStatus(status);
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(job));
+        return job;
+    }
+}
@@ -0,0 +1,123 @@
+package com.textify.me.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.textify.me.dto.CreateJobRequest;
+import com.textify.me.dto.UploadResponse;
+import com.textify.me.exception.InvalidFileException;
+import com.textify.me.model.Job;
+import com.textify.me.repository.JobRepository;
+import com.textify.me.repository.JobTextRepository;
+
+class JobServiceDirectUploadTest {
+
+    private static final long MAX_SIZE = 1000;
+    private static final String RAW_PATH = "gs://raw-uploads/job-1/scan.pdf";
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final BlobStore blobStore = mock(BlobStore.class);
+    private final JobQueue jobQueue = mock(JobQueue.class);
+    private final JobService jobService = new JobService(jobRepository, mock(JobTextRepository.class), blobStore,
+            jobQueue, mock(JobCache.class), Runnable::run, mock(ReadYourWritesTracker.class),
+            mock(UploadRateLimiter.class), DataSize.ofBytes(MAX_SIZE), Duration.ofMinutes(15));
+
+    @BeforeEach
+    void setUp() {
+        when(blobStore.createSignedUpload(anyString(), anyString(), anyLong(), any()))
+                .thenReturn(new SignedUpload("https://signed", Map.of(), Instant.now()));
+        when(blobStore.getRawUploadPath(anyString())).thenAnswer(call -> "gs://raw-uploads/" + call.getArgument(0));
+    }
+
+    @Test
+    void signsTheUploadForTheDeclaredSize() {
+        jobService.createJobForDirectUpload(new CreateJobRequest("user-1", "scan.pdf", "application/pdf", 400L, null));
+
+        verify(blobStore).createSignedUpload(anyString(), eq("application/pdf"), eq(400L), eq(Duration.ofMinutes(15)));
+    }
+
+    @Test
+    void declaredSizesUpToTheLimitAreAccepted() {
+        jobService.createJobForDirectUpload(new CreateJobRequest("user-1", "scan.pdf", "application/pdf", MAX_SIZE, null));
+
+        verify(blobStore).createSignedUpload(anyString(), anyString(), eq(MAX_SIZE), any());
+    }
+
+    @Test
+    void emptyOrOversizedDeclarationsAreRejectedBeforeSigning() {
+        for (Long size : new Long[] {null, 0L, MAX_SIZE + 1}) {
+            assertThrows(InvalidFileException.class, () -> jobService.createJobForDirectUpload(
+                    new CreateJobRequest("user-1", "scan.pdf", "application/pdf", size, null)), String.valueOf(size));
+        }
+        verify(blobStore, never()).createSignedUpload(anyString(), anyString(), anyLong(), any());
+    }
+
+    @Test
+    void completionEnqueuesAnUploadOfTheDeclaredSize() {
+        pendingJob(400L);
+        when(blobStore.getMetadata(RAW_PATH)).thenReturn(new BlobMetadata(400, "application/pdf"));
+        when(jobRepository.markUploaded(eq("job-1"), any())).thenReturn(1);
+
+        UploadResponse response = jobService.completeDirectUpload("job-1");
+
+        assertEquals("UPLOADED", response.getStatus());
+        verify(jobQueue).publishProcessingRequest(any());
+    }
+
+    @Test
+    void completionRejectsAnObjectOfAnotherSize() {
+        pendingJob(400L);
+        when(blobStore.getMetadata(RAW_PATH)).thenReturn(new BlobMetadata(401, "application/pdf"));
+
+        assertThrows(InvalidFileException.class, () -> jobService.completeDirectUpload("job-1"));
+        verify(jobQueue, never()).publishProcessingRequest(any());
+    }
+
+    @Test
+    void completionRejectsEmptyOrOversizedObjects() {
+        // Jobs created before the declared size was stored only have the limit to go by
+        pendingJob(null);
+        when(blobStore.getMetadata(RAW_PATH)).thenReturn(new BlobMetadata(0, "application/pdf"),
+                new BlobMetadata(MAX_SIZE + 1, "application/pdf"));
+
+        assertThrows(InvalidFileException.class, () -> jobService.completeDirectUpload("job-1"));
+        assertThrows(InvalidFileException.class, () -> jobService.completeDirectUpload("job-1"));
+        verify(jobQueue, never()).publishProcessingRequest(any());
+    }
+
+    @Test
+    void completionRejectsAMissingObject() {
+        pendingJob(400L);
+
+        assertThrows(InvalidFileException.class, () -> jobService.completeDirectUpload("job-1"));
+        verify(jobRepository, never()).markUploaded(anyString(), any());
+    }
+
+    private void pendingJob(Long fileSize) {
+        Job job = new Job();
+        job.setId("job-1");
+        job.setUserId("user-1");
+        job.setStatus("PENDING_UPLOAD");
+        job.setMimeType("application/pdf");
+        job.setOriginal_gcs_path(RAW_PATH);
+        job.setFileSize(fileSize);
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(job));
+    }
+}
@@ -0,0 +1,45 @@
+package com.textify.me.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+class JobServiceETagTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2026-10-01T12:00:00.123Z");
+    // On a 10 minute boundary
+    private static final Instant NOW = Instant.parse("2026-10-01T12:10:00Z");
+
+    @Test
+    void combinesStatusAndUpdatedAt() {
+        assertEquals("PROCESSING-" + UPDATED_AT.toEpochMilli(), JobService.eTag("PROCESSING", UPDATED_AT, NOW));
+        assertEquals("UPLOADED-0", JobService.eTag("UPLOADED", null, NOW));
+    }
+
+    @Test
+    void changesWithStatusOrUpdatedAt() {
+        String eTag = JobService.eTag("PROCESSING", UPDATED_AT, NOW);
+
+        assertNotEquals(eTag, JobService.eTag("FAILED", UPDATED_AT, NOW));
+        assertNotEquals(eTag, JobService.eTag("PROCESSING", UPDATED_AT.plusMillis(1), NOW));
+    }
+
+    @Test
+    void inFlightJobsDoNotRollOver() {
+        assertEquals(JobService.eTag("PROCESSING", UPDATED_AT, NOW),
+                JobService.eTag("PROCESSING", UPDATED_AT, NOW.plusSeconds(3600)));
+    }
+
+    @Test
+    void completedJobsRollOverBeforeTheirDownloadUrlExpires() {
+        String eTag = JobService.eTag("COMPLETED", UPDATED_AT, NOW);
+
+        // Stable within a 10 minute window...
+        assertEquals(eTag, JobService.eTag("COMPLETED", UPDATED_AT, NOW.plusSeconds(599)));
+        // ...and new after it, well before the 15 minute signed URL runs out
+        assertNotEquals(eTag, JobService.eTag("COMPLETED", UPDATED_AT, NOW.plusSeconds(600)));
+    }
+}
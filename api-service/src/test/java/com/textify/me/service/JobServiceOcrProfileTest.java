@@ -0,0 +1,55 @@
+package com.textify.me.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.textify.me.dto.OcrProfile;
+import com.textify.me.exception.InvalidRequestException;
+
+class JobServiceOcrProfileTest {
+
+    @Test
+    void emptyProfilesLeaveEverythingToTheWorker() {
+        assertDoesNotThrow(() -> JobService.validateOcrProfile(new OcrProfile()));
+    }
+
+    @Test
+    void acceptsSupportedSettings() {
+        assertDoesNotThrow(() -> JobService.validateOcrProfile(new OcrProfile("fast", "eng", 0, 70)));
+        assertDoesNotThrow(() -> JobService.validateOcrProfile(new OcrProfile("best", "eng+deu+chi_sim", 13, 600)));
+    }
+
+    @Test
+    void rejectsUnknownModels() {
+        assertThrows(InvalidRequestException.class,
+                () -> JobService.validateOcrProfile(new OcrProfile("legacy", null, null, null)));
+        assertThrows(InvalidRequestException.class,
+                () -> JobService.validateOcrProfile(new OcrProfile("FAST", null, null, null)));
+    }
+
+    @Test
+    void rejectsMalformedLanguages() {
+        for (String languages : new String[] {"", "eng+", "+eng", "ENG", "eng deu", "../eng", "eng+1"}) {
+            assertThrows(InvalidRequestException.class,
+                    () -> JobService.validateOcrProfile(new OcrProfile(null, languages, null, null)), languages);
+        }
+    }
+
+    @Test
+    void rejectsPageSegModesOutsideTesseractsRange() {
+        assertThrows(InvalidRequestException.class,
+                () -> JobService.validateOcrProfile(new OcrProfile(null, null, -1, null)));
+        assertThrows(InvalidRequestException.class,
+                () -> JobService.validateOcrProfile(new OcrProfile(null, null, 14, null)));
+    }
+
+    @Test
+    void rejectsDpiOutsideTheRenderRange() {
+        assertThrows(InvalidRequestException.class,
+                () -> JobService.validateOcrProfile(new OcrProfile(null, null, null, 69)));
+        assertThrows(InvalidRequestException.class,
+                () -> JobService.validateOcrProfile(new OcrProfile(null, null, null, 601)));
+    }
+}
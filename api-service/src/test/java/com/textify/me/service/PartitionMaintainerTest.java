@@ -0,0 +1,126 @@
+package com.textify.me.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class PartitionMaintainerTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-19T12:00:00Z");
+    private static final String SPLIT = "ALTER TABLE processing_jobs REORGANIZE PARTITION p_future INTO (";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PartitionMaintainer maintainer = new PartitionMaintainer(jdbcTemplate, Duration.ofDays(30), 3);
+
+    @Test
+    void unpartitionedTablesAreLeftAlone() {
+        partitions();
+
+        maintainer.addFuturePartitions(NOW);
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void firstRunSplitsOffHistoryAndAddsThisMonthAndThreeAhead() {
+        partitions(partition("p_future", "MAXVALUE"));
+
+        maintainer.addFuturePartitions(NOW);
+
+        assertEquals(List.of(
+                SPLIT + "PARTITION p_history VALUES LESS THAN ('2026-10-01'), PARTITION p_future VALUES LESS THAN (MAXVALUE))",
+                SPLIT + "PARTITION p202610 VALUES LESS THAN ('2026-11-01'), PARTITION p_future VALUES LESS THAN (MAXVALUE))",
+                SPLIT + "PARTITION p202611 VALUES LESS THAN ('2026-12-01'), PARTITION p_future VALUES LESS THAN (MAXVALUE))",
+                SPLIT + "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), PARTITION p_future VALUES LESS THAN (MAXVALUE))",
+                SPLIT + "PARTITION p202701 VALUES LESS THAN ('2027-02-01'), PARTITION p_future VALUES LESS THAN (MAXVALUE))"),
+                executed());
+    }
+
+    @Test
+    void laterRunsOnlyAddTheMissingMonths() {
+        partitions(partition("p_history", "'2026-10-01'"), partition("p202610", "'2026-11-01 00:00:00.000000'"),
+                partition("p202611", "'2026-12-01 00:00:00.000000'"), partition("p_future", "MAXVALUE"));
+
+        maintainer.addFuturePartitions(NOW);
+
+        assertEquals(List.of(
+                SPLIT + "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), PARTITION p_future VALUES LESS THAN (MAXVALUE))",
+                SPLIT + "PARTITION p202701 VALUES LESS THAN ('2027-02-01'), PARTITION p_future VALUES LESS THAN (MAXVALUE))"),
+                executed());
+    }
+
+    @Test
+    void monthsRollOverAtMidnightUtc() {
+        partitions(partition("p_history", "'2026-10-01'"), partition("p202610", "'2026-11-01'"),
+                partition("p202611", "'2026-12-01'"), partition("p202612", "'2027-01-01'"),
+                partition("p202701", "'2027-02-01'"), partition("p_future", "MAXVALUE"));
+
+        maintainer.addFuturePartitions(Instant.parse("2026-10-31T23:59:59Z"));
+        verify(jdbcTemplate, never()).execute(anyString());
+
+        maintainer.addFuturePartitions(Instant.parse("2026-11-01T00:00:00Z"));
+        assertEquals(List.of(
+                SPLIT + "PARTITION p202702 VALUES LESS THAN ('2027-03-01'), PARTITION p_future VALUES LESS THAN (MAXVALUE))"),
+                executed());
+    }
+
+    @Test
+    void dropsOnlyEmptyPartitionsEntirelyPastTheRetention() {
+        // 30 days before 2026-10-19 is 2026-09-19, and p202609 ends after that
+        partitions(partition("p_history", "'2026-08-01'"), partition("p202608", "'2026-09-01'"),
+                partition("p202609", "'2026-10-01'"), partition("p202610", "'2026-11-01'"),
+                partition("p_future", "MAXVALUE"));
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processing_jobs PARTITION (p_history)", Integer.class))
+                .thenReturn(0);
+        when(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processing_jobs PARTITION (p202608)", Integer.class))
+                .thenReturn(5); // not archived yet
+
+        maintainer.dropEmptyExpiredPartitions(NOW);
+
+        assertEquals(List.of("ALTER TABLE processing_jobs DROP PARTITION p_history"), executed());
+        verify(jdbcTemplate, never()).queryForObject(eq("SELECT COUNT(*) FROM processing_jobs PARTITION (p202609)"),
+                eq(Integer.class));
+    }
+
+    @Test
+    void neverDropsTheLastBoundedPartition() {
+        partitions(partition("p202601", "'2026-02-01'"), partition("p_future", "MAXVALUE"));
+
+        maintainer.dropEmptyExpiredPartitions(NOW);
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @SafeVarargs
+    private void partitions(Map<String, Object>... partitions) {
+        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(partitions));
+    }
+
+    private static Map<String, Object> partition(String name, String description) {
+        return Map.of("PARTITION_NAME", name, "PARTITION_DESCRIPTION", description);
+    }
+
+    private List<String> executed() {
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeast(0)).execute(statements.capture());
+        List<String> all = new ArrayList<>(statements.getAllValues());
+        clearInvocations(jdbcTemplate);
+        return all;
+    }
+}
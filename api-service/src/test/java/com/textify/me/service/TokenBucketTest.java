@@ -0,0 +1,77 @@
+package com.textify.me.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    // One token a minute, so nothing refills while a test runs
+    private static final double SLOW_REFILL = 1;
+
+    @Test
+    void startsFullAndAdmitsABurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, SLOW_REFILL);
+
+        assertEquals(3, bucket.available(), 0.01);
+        assertEquals(0, bucket.tryAcquire(1));
+        assertEquals(0, bucket.tryAcquire(2));
+        assertEquals(0, bucket.available(), 0.01);
+    }
+
+    @Test
+    void refusesWhenEmptyWithTheWaitForTheMissingTokens() {
+        TokenBucket bucket = new TokenBucket(2, SLOW_REFILL);
+        bucket.tryAcquire(2);
+
+        long wait = bucket.tryAcquire(1);
+
+        // One token a minute: the next one is about a minute away
+        assertTrue(wait > TimeUnit.SECONDS.toNanos(55) && wait <= TimeUnit.MINUTES.toNanos(1), "wait was " + wait);
+        assertEquals(0, bucket.available(), 0.01);
+    }
+
+    @Test
+    void refusedRequestsTakeNothing() {
+        TokenBucket bucket = new TokenBucket(3, SLOW_REFILL);
+        bucket.tryAcquire(2);
+
+        assertTrue(bucket.tryAcquire(2) > 0);
+        assertEquals(0, bucket.tryAcquire(1));
+    }
+
+    @Test
+    void requestsAboveCapacityTakeAFullBucket() {
+        TokenBucket bucket = new TokenBucket(5, SLOW_REFILL);
+
+        assertEquals(0, bucket.tryAcquire(50));
+        assertEquals(0, bucket.available(), 0.01);
+        assertTrue(bucket.tryAcquire(50) > 0);
+    }
+
+    @Test
+    void refundReturnsTakenTokens() {
+        TokenBucket bucket = new TokenBucket(4, SLOW_REFILL);
+        bucket.tryAcquire(3);
+
+        bucket.refund(2);
+
+        assertEquals(3, bucket.available(), 0.01);
+        assertEquals(0, bucket.tryAcquire(3));
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        // 6000 a minute is one token every 10ms
+        TokenBucket bucket = new TokenBucket(1, 6000);
+        bucket.tryAcquire(1);
+        assertTrue(bucket.tryAcquire(1) > 0);
+
+        Thread.sleep(50);
+
+        assertEquals(0, bucket.tryAcquire(1));
+    }
+}
@@ -0,0 +1,109 @@
+package com.textify.worker.config;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for the worker pipeline stages (see JobDispatcher).
+ * Every stage is bounded and submitting to a full stage blocks the submitter, so backpressure
+ * flows from persist back to OCR, from OCR back to fetch, and from fetch back to the queue.
+ */
+@Configuration
+public class ExecutorConfiguration {
+
+    private final Environment environment;
+
+    public ExecutorConfiguration(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Fetch stage: job lookup and download of the original file. I/O bound, so it uses
+     * virtual threads when spring.threads.virtual.enabled=true on Java 21+.
+     */
+    @Bean(name = "fetchExecutor")
+    public SimpleAsyncTaskExecutor fetchExecutor(@Value("${textify.worker.fetch.concurrency:8}") int concurrency) {
+        return ioExecutor("Fetch-", concurrency);
+    }
+
+    /**
+     * OCR stage: rendering and Tesseract. CPU bound, so it stays a platform pool sized to the
+     * number of cores unless textify.worker.ocr.threads is set. The queue in front of it holds
+     * fetched jobs ready to go, so an OCR thread never waits on a download.
+     */
+    @Bean(name = "ocrExecutor")
+    public ThreadPoolTaskExecutor ocrExecutor(@Value("${textify.worker.ocr.threads:0}") int ocrThreads,
+                                              @Value("${textify.worker.ocr.queue-capacity:0}") int queueCapacity) {
+        int threads = ocrThreads > 0 ? ocrThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity > 0 ? queueCapacity : threads * 2);
+        executor.setRejectedExecutionHandler(new BlockWhenFullPolicy());
+        executor.setThreadNamePrefix("Ocr-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Tiles of very large images, OCR'd in parallel while the job's OCR thread decodes the next
+     * strip and waits for the results. Kept apart from ocrExecutor so a job waiting on its
+     * tiles never blocks the threads that would run them. The small queue bounds the decoded
+     * tiles held in memory: the decoding thread blocks once it is full.
+     */
+    @Bean(name = "ocrTileExecutor")
+    public ThreadPoolTaskExecutor ocrTileExecutor(@Value("${textify.worker.ocr.tile.threads:0}") int tileThreads) {
+        int threads = tileThreads > 0 ? tileThreads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setRejectedExecutionHandler(new BlockWhenFullPolicy());
+        executor.setThreadNamePrefix("OcrTile-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Persist stage: upload of the extracted text and the final status update. I/O bound.
+     */
+    @Bean(name = "persistExecutor")
+    public SimpleAsyncTaskExecutor persistExecutor(@Value("${textify.worker.persist.concurrency:8}") int concurrency) {
+        return ioExecutor("Persist-", concurrency);
+    }
+
+    // Thread per task with a concurrency limit; execute() blocks once the limit is reached
+    private SimpleAsyncTaskExecutor ioExecutor(String threadNamePrefix, int concurrency) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setConcurrencyLimit(concurrency);
+        return executor;
+    }
+
+    /**
+     * Waits for room in the pool's queue instead of rejecting the task.
+     */
+    static class BlockWhenFullPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for queue space", e);
+            }
+        }
+    }
+}
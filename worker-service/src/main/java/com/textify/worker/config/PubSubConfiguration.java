@@ -1,14 +1,17 @@
 package com.textify.worker.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.integration.channel.DirectChannel;
 import org.springframework.messaging.MessageChannel;
 
 import com.google.cloud.spring.pubsub.core.PubSubTemplate;
+import com.google.cloud.spring.pubsub.integration.AckMode;
 import com.google.cloud.spring.pubsub.integration.inbound.PubSubInboundChannelAdapter;
 
 @Configuration
+@ConditionalOnProperty(name = "textify.queue.backend", havingValue = "pubsub", matchIfMissing = true)
 public class PubSubConfiguration {
 
     // This bean creates the channel your ServiceActivator is listening to
@@ -23,6 +26,9 @@ public class PubSubConfiguration {
     public PubSubInboundChannelAdapter messageChannelAdapter(PubSubTemplate pubSubTemplate) {
         PubSubInboundChannelAdapter adapter = new PubSubInboundChannelAdapter(pubSubTemplate, "textify-processing-subscription");
         adapter.setOutputChannel(pubsubInputChannel());
+        // JobDispatcher settles each message when its job leaves the pipeline. In AUTO mode the
+        // adapter would ack as soon as the listener hands the job off, so a crash lost the job.
+        adapter.setAckMode(AckMode.MANUAL);
         return adapter;
     }
 }
\ No newline at end of file
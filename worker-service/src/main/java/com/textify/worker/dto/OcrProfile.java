@@ -0,0 +1,17 @@
+package com.textify.worker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Per-job OCR settings from the upload request - must match api-service's OcrProfile.
+// Null fields fall back to the worker's configured defaults.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OcrProfile {
+    private String model;        // "fast" (tessdata_fast) or "best" (tessdata_best)
+    private String languages;    // Tesseract language set, e.g. "eng" or "eng+deu"
+    private Integer pageSegMode; // Tesseract PSM, 0-13
+    private Integer dpi;         // render resolution for scanned PDFs
+}
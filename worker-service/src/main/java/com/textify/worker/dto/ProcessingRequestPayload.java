@@ -0,0 +1,17 @@
+package com.textify.worker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// This DTO defines the structure of a job dispatch message (Pub/Sub or JDBC queue).
+// Must match the payload structure from ProcessingRequestPayload in api-service
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessingRequestPayload {
+    private String jobId;
+    private String originalGcsPath;
+    private String userId;
+    private OcrProfile ocrProfile; // null = worker defaults
+}
@@ -0,0 +1,11 @@
+package com.textify.worker.exception;
+
+/**
+ * Thrown when the job was cancelled through the API, either before the worker got to it or
+ * while it was being processed. The work is abandoned and the delivery acked.
+ */
+public class JobCancelledException extends RuntimeException {
+    public JobCancelledException(String message) {
+        super(message);
+    }
+}
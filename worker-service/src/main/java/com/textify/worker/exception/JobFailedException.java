@@ -0,0 +1,20 @@
+package com.textify.worker.exception;
+
+/**
+ * Thrown when a job has failed for good and is already marked FAILED. The delivery is settled
+ * instead of being redelivered: acked for a permanent failure, dead-lettered once the job ran
+ * out of delivery attempts.
+ */
+public class JobFailedException extends RuntimeException {
+
+    private final boolean retriesExhausted;
+
+    public JobFailedException(String message, Throwable cause, boolean retriesExhausted) {
+        super(message, cause);
+        this.retriesExhausted = retriesExhausted;
+    }
+
+    public boolean isRetriesExhausted() {
+        return retriesExhausted;
+    }
+}
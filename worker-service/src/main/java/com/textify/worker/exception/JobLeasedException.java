@@ -0,0 +1,13 @@
+package com.textify.worker.exception;
+
+/**
+ * Thrown when a delivered job is already finished or leased by another worker, i.e. the
+ * delivery is a duplicate. Duplicates are acked and dropped at once, even while the job is in
+ * progress: if the live attempt then fails, its lease runs out and JobLeaseSweeper in
+ * api-service requeues the job, so nothing depends on the duplicate's message.
+ */
+public class JobLeasedException extends RuntimeException {
+    public JobLeasedException(String message) {
+        super(message);
+    }
+}
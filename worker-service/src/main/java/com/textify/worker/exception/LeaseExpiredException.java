@@ -0,0 +1,12 @@
+package com.textify.worker.exception;
+
+/**
+ * Thrown when a job's queue lease ran out before the worker got to it.
+ * The queue has already made (or will make) the job available to other workers,
+ * so the work is abandoned without marking the job FAILED.
+ */
+public class LeaseExpiredException extends RuntimeException {
+    public LeaseExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.textify.worker.exception;
+
+/**
+ * Thrown when the input file itself cannot be processed (corrupt image, unreadable PDF).
+ * Such failures are permanent: redelivering the job would fail the same way.
+ */
+public class UnprocessableInputException extends RuntimeException {
+    public UnprocessableInputException(String message) {
+        super(message);
+    }
+
+    public UnprocessableInputException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
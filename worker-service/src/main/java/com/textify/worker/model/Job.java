@@ -44,6 +44,36 @@ public class Job {
 	
 	@Column
 	String error_message;
+
+	@Column
+	String ocrModel; // requested OCR profile; null fields mean worker defaults
+
+	@Column
+	String ocrLanguages;
+
+	@Column
+	Integer ocrPageSegMode;
+
+	@Column
+	Integer ocrDpi;
+
+	@Column
+	Integer pageCount;
+
+	@Column
+	Integer blankPages; // pages skipped by OCR as blank
+
+	@Column
+	Integer estimatedPages; // set by api-service at upload, see ThroughputMonitor
+
+	@Column
+	String leaseOwner; // worker instance processing the job, see JobLeaseManager
+
+	@Column
+	Instant leaseExpiresAt;
+
+	@Column
+	int attempts; // deliveries leased so far, see WorkerProcessingService
 	
 	@Column
 	Instant createdAt;
@@ -0,0 +1,47 @@
+package com.textify.worker.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A job that failed for good: permanently, or after exhausting its delivery attempts (dead-lettered)
+@Entity
+@Table(name = "job_failures")
+@NoArgsConstructor
+@Data
+@AllArgsConstructor
+public class JobFailure {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	Long id;
+
+	@Column(nullable = false)
+	String jobId;
+
+	@Column
+	String userId;
+
+	@Column(nullable = false)
+	String reason; // PERMANENT or RETRIES_EXHAUSTED
+
+	@Column(nullable = false)
+	int attempts;
+
+	@Column
+	String errorClass;
+
+	@Column(columnDefinition = "TEXT")
+	String errorMessage;
+
+	@Column(nullable = false)
+	Instant failedAt;
+
+}
@@ -0,0 +1,23 @@
+package com.textify.worker.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.textify.worker.model.JobQueueEntry;
+
+public interface JobQueueRepository extends JpaRepository<JobQueueEntry, Long> {
+
+    // Locks the next visible entries; rows already locked by another worker are skipped, not waited on.
+    @Query(value = "SELECT * FROM job_queue WHERE visible_at <= :now ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<JobQueueEntry> lockNextVisible(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE JobQueueEntry e SET e.visibleAt = :visibleAt WHERE e.id = :id")
+    int updateVisibleAt(@Param("id") Long id, @Param("visibleAt") Instant visibleAt);
+}
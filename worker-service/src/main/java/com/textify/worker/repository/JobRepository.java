@@ -1,8 +1,64 @@
 package com.textify.worker.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.textify.worker.model.Job;
 
 public interface JobRepository extends JpaRepository<Job, String> {
+
+    // Takes the lease, counts the attempt and marks the job PROCESSING, unless the job is finished
+    // or another worker holds a live lease
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = 'PROCESSING', j.leaseOwner = :owner, j.leaseExpiresAt = :expiresAt, j.updatedAt = :now, "
+            + "j.attempts = j.attempts + 1 WHERE j.id = :id AND j.status IN ('UPLOADED', 'PROCESSING') "
+            + "AND (j.leaseOwner IS NULL OR j.leaseExpiresAt < :now)")
+    int acquireLease(@Param("id") String id, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt,
+                     @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.leaseExpiresAt = :expiresAt WHERE j.id = :id AND j.leaseOwner = :owner")
+    int renewLease(@Param("id") String id, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    // Completion and failure only apply while this worker still owns the job, so a job cancelled
+    // (or taken over) meanwhile is not overwritten
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = 'COMPLETED', j.processed_gcs_path = :processedPath, j.pageCount = :pageCount, "
+            + "j.blankPages = :blankPages, j.extracted_text_preview = :preview, j.error_message = NULL, j.updatedAt = :now "
+            + "WHERE j.id = :id AND j.status = 'PROCESSING' AND j.leaseOwner = :owner")
+    int markCompleted(@Param("id") String id, @Param("owner") String owner, @Param("processedPath") String processedPath,
+                      @Param("pageCount") Integer pageCount, @Param("blankPages") Integer blankPages,
+                      @Param("preview") String preview, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.status = :status, j.error_message = :errorMessage, j.updatedAt = :now "
+            + "WHERE j.id = :id AND j.status = 'PROCESSING' AND j.leaseOwner = :owner")
+    int markFailed(@Param("id") String id, @Param("owner") String owner, @Param("status") String status,
+                   @Param("errorMessage") String errorMessage, @Param("now") Instant now);
+
+    @Query("SELECT j.id FROM Job j WHERE j.id IN :ids AND j.status = 'CANCELLED'")
+    List<String> findCancelledIdsIn(@Param("ids") Collection<String> ids);
+
+    // Pages waiting for or in OCR across all workers; the real count once known, else the upload estimate
+    @Query("SELECT COALESCE(SUM(COALESCE(j.pageCount, j.estimatedPages, 1)), 0) FROM Job j "
+            + "WHERE j.status IN ('UPLOADED', 'PROCESSING')")
+    long sumOutstandingPages();
+
+    // Leaves the lease expired rather than unset: a job released while still PROCESSING (its delivery
+    // nacked) is requeued by api-service's JobLeaseSweeper if the delivery never comes back
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.leaseOwner = NULL, j.leaseExpiresAt = :now WHERE j.id = :id AND j.leaseOwner = :owner")
+    int releaseLease(@Param("id") String id, @Param("owner") String owner, @Param("now") Instant now);
 }
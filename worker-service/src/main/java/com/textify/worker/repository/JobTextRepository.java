@@ -0,0 +1,8 @@
+package com.textify.worker.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.textify.worker.model.JobText;
+
+public interface JobTextRepository extends JpaRepository<JobText, String> {
+}
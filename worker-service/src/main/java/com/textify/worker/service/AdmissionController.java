@@ -0,0 +1,384 @@
+package com.textify.worker.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.textify.worker.dto.OcrProfile;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Decides how much work the worker takes on, instead of a fixed concurrency level.
+ *
+ * Two budgets are enforced. The number of jobs in the pipeline is an adaptive limit (AIMD):
+ * it grows by one while the limit is being hit with CPU to spare and per-page latency near its
+ * baseline, and shrinks multiplicatively under GC pressure, when the heap stays full after
+ * collections, or when per-page latency doubles. JobDispatcher blocks at the limit, which
+ * holds back the queue source. Separately, each job's OCR stage reserves its estimated heap
+ * cost against a share of the max heap, so a few huge scans wait for each other while many
+ * small images run side by side. Defaults derive from the core count and max heap, so no
+ * per-machine tuning is needed.
+ */
+@Service
+public class AdmissionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionController.class);
+
+    private static final double LETTER_WIDTH_INCHES = 8.5;
+    private static final double LETTER_HEIGHT_INCHES = 11;
+    private static final int BYTES_PER_DECODED_PIXEL = 5; // ARGB decode plus the gray copy OCR reads
+    private static final long BYTES_PER_SCANNED_PAGE = 100 * 1024; // fallback when the page tree can't be read
+    private static final byte[] COUNT_KEY = "/Count".getBytes(StandardCharsets.US_ASCII);
+
+    private final int maxLimit;
+    private final long heapBudgetBytes;
+    private final long maxDecodedPixels;
+    private final double maxGcFraction;
+    private final double maxHeapAfterGc;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private long heapReserved;
+    private boolean saturated;        // the limit was reached since the last adjustment
+    private double recentNanosPerPage; // moving average
+    private double baselineNanosPerPage;
+
+    private long lastAdjustNanos = System.nanoTime();
+    private long lastGcMillis = totalGcMillis();
+
+    private final Counter heapWaits;
+
+    public AdmissionController(MeterRegistry meterRegistry,
+                               @Value("${textify.worker.pipeline.max-in-flight:32}") int maxInFlight,
+                               @Value("${textify.worker.admission.heap-fraction:0.6}") double heapFraction,
+                               @Value("${textify.worker.admission.max-gc-fraction:0.1}") double maxGcFraction,
+                               @Value("${textify.worker.admission.max-heap-after-gc:0.8}") double maxHeapAfterGc,
+                               @Value("${textify.worker.ocr.max-pixels:120000000}") long maxDecodedPixels) {
+        this.maxLimit = maxInFlight;
+        this.heapBudgetBytes = (long) (Runtime.getRuntime().maxMemory() * heapFraction);
+        this.maxGcFraction = maxGcFraction;
+        this.maxHeapAfterGc = maxHeapAfterGc;
+        this.maxDecodedPixels = maxDecodedPixels; // larger images are subsampled while decoding
+        // Enough to keep every OCR thread busy with the next job already downloading
+        this.limit = Math.min(maxInFlight, 2 * Runtime.getRuntime().availableProcessors());
+        this.heapWaits = Counter.builder("textify.worker.admission.heap-waits")
+                .description("Jobs that waited for heap budget before OCR").register(meterRegistry);
+        Gauge.builder("textify.worker.admission.limit", this, AdmissionController::getLimit)
+                .description("Current limit on jobs in the pipeline").register(meterRegistry);
+        Gauge.builder("textify.worker.admission.in-flight", this, AdmissionController::getInFlight)
+                .description("Jobs in the pipeline").register(meterRegistry);
+        Gauge.builder("textify.worker.admission.heap.reserved", this, AdmissionController::getHeapReserved)
+                .description("Heap reserved by jobs in the OCR stage").baseUnit("bytes").register(meterRegistry);
+        logger.info("Admission starts at {} jobs (max {}), OCR heap budget {} bytes.", (int) limit, maxLimit,
+                heapBudgetBytes);
+    }
+
+    // Takes a pipeline slot, blocking while the pipeline is at its limit
+    public void acquireSlot() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                saturated = true;
+                changed.await();
+            }
+            inFlight++;
+            if (inFlight >= (int) limit) {
+                saturated = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a pipeline slot.
+     *
+     * @param elapsedNanos Time the job spent in the pipeline, or 0 if it did not complete.
+     * @param pages Pages processed, to normalise the latency of jobs of different sizes.
+     */
+    public void releaseSlot(long elapsedNanos, int pages) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (elapsedNanos > 0) {
+                double nanosPerPage = elapsedNanos / (double) Math.max(pages, 1);
+                recentNanosPerPage = recentNanosPerPage == 0 ? nanosPerPage : 0.8 * recentNanosPerPage + 0.2 * nanosPerPage;
+                baselineNanosPerPage = baselineNanosPerPage == 0 ? nanosPerPage : Math.min(baselineNanosPerPage, nanosPerPage);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Free pipeline slots; pull-based sources use this to avoid claiming more than can be started
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return Math.max(0, (int) limit - inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Waits for the pipeline to drain, e.g. on shutdown; returns false on timeout
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        lock.lock();
+        try {
+            while (inFlight > 0) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves the job's heap cost for its OCR stage, blocking while other jobs hold the budget.
+     * A job is always admitted on its own, however large, so a big file can't stall forever.
+     */
+    public HeapPermit reserveHeap(JobCost cost) throws InterruptedException {
+        long bytes = cost.getHeapBytes();
+        lock.lock();
+        try {
+            if (heapReserved > 0 && heapReserved + bytes > heapBudgetBytes) {
+                heapWaits.increment();
+                while (heapReserved > 0 && heapReserved + bytes > heapBudgetBytes) {
+                    changed.await();
+                }
+            }
+            heapReserved += bytes;
+            return new HeapPermit(bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Estimates the OCR stage's cost from cheap reads only: the input size, the image header
+     * for dimensions, and the page count from a PDF's page tree. PDF pages are rendered one at
+     * a time, so their heap cost is the parsed document plus a single page raster.
+     */
+    public JobCost estimate(byte[] input, String fileType, OcrProfile profile) {
+        if ("pdf".equals(fileType)) {
+            int dpi = TesseractOcrService.dpi(profile);
+            long pageRaster = (long) (LETTER_WIDTH_INCHES * dpi * LETTER_HEIGHT_INCHES * dpi) * BYTES_PER_DECODED_PIXEL;
+            return new JobCost(2L * input.length + pageRaster, countPdfPages(input));
+        }
+        long pixels = Math.min(imagePixels(input), maxDecodedPixels);
+        return new JobCost(input.length + pixels * BYTES_PER_DECODED_PIXEL, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${textify.worker.admission.adjust-interval-ms:5000}")
+    public void adjust() {
+        long now = System.nanoTime();
+        long gcMillis = totalGcMillis();
+        double gcFraction = (gcMillis - lastGcMillis) / (double) Math.max(1, TimeUnit.NANOSECONDS.toMillis(now - lastAdjustNanos));
+        lastGcMillis = gcMillis;
+        lastAdjustNanos = now;
+        adjust(gcFraction, heapAfterGc(), cpuLoad());
+    }
+
+    // Additive increase while the limit is reached with CPU to spare, multiplicative decrease under GC or latency pressure
+    void adjust(double gcFraction, double heapAfterGc, double cpuLoad) {
+        lock.lock();
+        try {
+            double previous = limit;
+            String reason;
+            if (gcFraction > maxGcFraction || heapAfterGc > maxHeapAfterGc) {
+                limit = Math.max(1, limit * 0.75);
+                reason = String.format("GC %.0f%% of time, heap %.0f%% full after GC", gcFraction * 100, heapAfterGc * 100);
+            } else if (baselineNanosPerPage > 0 && recentNanosPerPage > 2 * baselineNanosPerPage) {
+                limit = Math.max(1, limit * 0.9);
+                reason = "per-page latency at " + Math.round(recentNanosPerPage / baselineNanosPerPage) + "x its baseline";
+            } else if (saturated && cpuLoad < 0.9) {
+                limit = Math.min(maxLimit, limit + 1);
+                reason = "limit reached with CPU to spare";
+            } else {
+                reason = null;
+            }
+            // Let the baseline drift up slowly so it follows changes in the job mix
+            baselineNanosPerPage *= 1.01;
+            saturated = false;
+            if ((int) limit != (int) previous) {
+                logger.info("Admission limit {} -> {} ({}).", (int) previous, (int) limit, reason);
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHeapReserved() {
+        lock.lock();
+        try {
+            return heapReserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseHeap(long bytes) {
+        lock.lock();
+        try {
+            heapReserved -= bytes;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Width x height from the image header, without decoding pixels; the input size if unreadable
+    private static long imagePixels(byte[] input) {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream(input))) {
+            Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+            if (readers != null && readers.hasNext()) {
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(stream, true, true);
+                    return (long) reader.getWidth(0) * reader.getHeight(0);
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } catch (IOException e) {
+            // fall through; the OCR stage reports unreadable images
+        }
+        return input.length;
+    }
+
+    /**
+     * Page count from the root of the page tree, the largest /Count in the file (outline counts
+     * are smaller). Page trees inside compressed object streams can't be seen this way; the
+     * count then falls back to an estimate from the file size.
+     */
+    private static int countPdfPages(byte[] pdf) {
+        int pages = 0;
+        for (int i = indexOf(pdf, COUNT_KEY, 0); i >= 0; i = indexOf(pdf, COUNT_KEY, i + COUNT_KEY.length)) {
+            int j = i + COUNT_KEY.length;
+            while (j < pdf.length && (pdf[j] == ' ' || pdf[j] == '\r' || pdf[j] == '\n')) {
+                j++;
+            }
+            int count = 0;
+            while (j < pdf.length && pdf[j] >= '0' && pdf[j] <= '9' && count < 1_000_000) {
+                count = count * 10 + (pdf[j++] - '0');
+            }
+            pages = Math.max(pages, count);
+        }
+        return pages > 0 ? pages : (int) Math.max(1, pdf.length / BYTES_PER_SCANNED_PAGE);
+    }
+
+    private static int indexOf(byte[] data, byte[] key, int from) {
+        outer:
+        for (int i = from; i <= data.length - key.length; i++) {
+            for (int k = 0; k < key.length; k++) {
+                if (data[i + k] != key[k]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    // Occupancy of the old generation right after its last collection, i.e. live data that GC can't free.
+    // Eden and survivor pools don't support usage thresholds, which leaves the tenured pool(s).
+    private static double heapAfterGc() {
+        double highest = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            boolean tenured = pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported();
+            MemoryUsage usage = tenured ? pool.getCollectionUsage() : null;
+            if (usage != null && usage.getMax() > 0) {
+                highest = Math.max(highest, usage.getUsed() / (double) usage.getMax());
+            }
+        }
+        return highest;
+    }
+
+    private static double cpuLoad() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            double load = os.getCpuLoad();
+            if (load >= 0) {
+                return load;
+            }
+        }
+        double loadAverage = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        return loadAverage < 0 ? 0 : loadAverage / Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Heap reserved for one job's OCR stage; close() returns it.
+     */
+    public final class HeapPermit implements AutoCloseable {
+        private final long bytes;
+        private boolean closed;
+
+        private HeapPermit(long bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                releaseHeap(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.textify.worker.service;
+
+/**
+ * Size and version of a stored object. The version changes whenever the object's content does
+ * (the GCS generation, or modification time and size for the local backend).
+ */
+public final class BlobMetadata {
+
+    private final long size;
+    private final String version;
+
+    public BlobMetadata(long size, String version) {
+        this.size = size;
+        this.version = version;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,59 @@
+package com.textify.worker.service;
+
+/**
+ * A parsed storage path of the form {@code scheme://bucket/object}.
+ * GCS objects use the {@code gs} scheme, the local filesystem backend uses {@code local}.
+ */
+public final class BlobPath {
+
+    private final String scheme;
+    private final String bucket;
+    private final String objectName;
+
+    private BlobPath(String scheme, String bucket, String objectName) {
+        this.scheme = scheme;
+        this.bucket = bucket;
+        this.objectName = objectName;
+    }
+
+    public static BlobPath of(String scheme, String bucket, String objectName) {
+        return new BlobPath(scheme, bucket, objectName);
+    }
+
+    /**
+     * Parses a path such as "gs://your-bucket/path/to/file.txt".
+     *
+     * @throws IllegalArgumentException if the path has no scheme, bucket or object name.
+     */
+    public static BlobPath parse(String path) {
+        int schemeEnd = path == null ? -1 : path.indexOf("://");
+        if (schemeEnd <= 0) {
+            throw new IllegalArgumentException("Invalid storage path format: " + path);
+        }
+        String pathWithoutPrefix = path.substring(schemeEnd + "://".length());
+        int firstSlash = pathWithoutPrefix.indexOf('/');
+        if (firstSlash <= 0 || firstSlash == pathWithoutPrefix.length() - 1) {
+            throw new IllegalArgumentException("Invalid storage path format (no blob name): " + path);
+        }
+        return new BlobPath(path.substring(0, schemeEnd),
+                pathWithoutPrefix.substring(0, firstSlash),
+                pathWithoutPrefix.substring(firstSlash + 1));
+    }
+
+    public String getScheme() {
+        return scheme;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public String getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s://%s/%s", scheme, bucket, objectName);
+    }
+}
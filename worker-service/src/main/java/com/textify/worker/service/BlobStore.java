@@ -0,0 +1,67 @@
+package com.textify.worker.service;
+
+import java.nio.file.Path;
+
+/**
+ * Object storage the worker reads raw uploads from and writes processed text to.
+ * The backend is selected with {@code textify.storage.backend} (gcs or local).
+ */
+public interface BlobStore {
+
+    /**
+     * Reads the whole object at the given storage path (e.g. gs://bucket/blob).
+     */
+    byte[] downloadFile(String path);
+
+    /**
+     * Returns the size and version of the object at the given storage path.
+     */
+    BlobMetadata getMetadata(String path);
+
+    /**
+     * Streams the object at the given storage path into a local file, replacing it if it exists.
+     */
+    void downloadTo(String path, Path target);
+
+    /**
+     * Reads the version of the object described by metadata, as returned by getMetadata.
+     * Backends that can address a version (the GCS generation) read it without looking the
+     * object up again, and fail rather than return a newer version.
+     */
+    default byte[] downloadFile(String path, BlobMetadata metadata) {
+        return downloadFile(path);
+    }
+
+    /**
+     * Streams the version of the object described by metadata into a local file, like
+     * downloadFile(String, BlobMetadata).
+     */
+    default void downloadTo(String path, BlobMetadata metadata, Path target) {
+        downloadTo(path, target);
+    }
+
+    /**
+     * Writes the content to bucketName/blobName and returns its storage path.
+     */
+    default String uploadFile(byte[] content, String bucketName, String blobName, String contentType) {
+        return uploadFile(content, bucketName, blobName, contentType, null);
+    }
+
+    /**
+     * Writes content encoded with contentEncoding (e.g. gzip, or null for none) and records the
+     * encoding on the object, so downloads are decoded transparently. Only backends for which
+     * supportsContentEncoding() is true accept an encoding.
+     */
+    String uploadFile(byte[] content, String bucketName, String blobName, String contentType, String contentEncoding);
+
+    /**
+     * Whether uploadFile can record a Content-Encoding that downloads honour.
+     */
+    default boolean supportsContentEncoding() {
+        return false;
+    }
+
+    String getRawUploadsBucketName();
+
+    String getProcessedFilesBucketName();
+}
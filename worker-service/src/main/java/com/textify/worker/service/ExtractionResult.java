@@ -0,0 +1,17 @@
+package com.textify.worker.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The text extracted from a file, with the page stats recorded on the job.
+ */
+@Getter
+@AllArgsConstructor
+public class ExtractionResult {
+
+    private final String text;
+    private final int pageCount;
+    private final int blankPages; // pages detected as blank and not OCR'd
+    private final int ocrPages; // pages that went through Tesseract; 0 for PDFs with native text
+}
@@ -1,6 +1,9 @@
 package com.textify.worker.service;
 
+import java.nio.file.Path;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import com.google.cloud.storage.Blob;
@@ -10,7 +13,8 @@ import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageException;
 
 @Service
-public class GCSService {
+@ConditionalOnProperty(name = "textify.storage.backend", havingValue = "gcs", matchIfMissing = true)
+public class GCSService implements BlobStore {
 
     private final Storage storage;
     private final String rawUploadsBucketName;
@@ -24,30 +28,81 @@ public class GCSService {
         this.processedFilesBucketName = processedFilesBucketName;
     }
 
+    @Override
     public byte[] downloadFile(String gcsPath) {
         try {
-            // Parse bucket and blob name from gcsPath (e.g., gs://bucket/blob)
-            String pathWithoutPrefix = gcsPath.substring("gs://".length());
-            int firstSlash = pathWithoutPrefix.indexOf('/');
-            String bucket = pathWithoutPrefix.substring(0, firstSlash);
-            String blobName = pathWithoutPrefix.substring(firstSlash + 1);
-
-            BlobId blobId = BlobId.of(bucket, blobName);
-            Blob blob = storage.get(blobId);
-            if (blob == null) {
-                throw new RuntimeException("File not found in GCS: " + gcsPath);
-            }
-            return blob.getContent();
+            return getBlob(gcsPath).getContent();
+        } catch (StorageException e) {
+            throw new RuntimeException("Failed to download file from GCS: " + gcsPath, e);
+        }
+    }
+
+    @Override
+    public BlobMetadata getMetadata(String gcsPath) {
+        try {
+            Blob blob = getBlob(gcsPath);
+            return new BlobMetadata(blob.getSize(), String.valueOf(blob.getGeneration()));
+        } catch (StorageException e) {
+            throw new RuntimeException("Failed to read metadata from GCS: " + gcsPath, e);
+        }
+    }
+
+    @Override
+    public void downloadTo(String gcsPath, Path target) {
+        try {
+            // Streams the object to disk without materializing it on the heap
+            getBlob(gcsPath).downloadTo(target);
+        } catch (StorageException e) {
+            throw new RuntimeException("Failed to download file from GCS: " + gcsPath, e);
+        }
+    }
+
+    @Override
+    public byte[] downloadFile(String gcsPath, BlobMetadata metadata) {
+        try {
+            return storage.readAllBytes(blobId(gcsPath, metadata));
+        } catch (StorageException e) {
+            throw new RuntimeException("Failed to download file from GCS: " + gcsPath, e);
+        }
+    }
+
+    @Override
+    public void downloadTo(String gcsPath, BlobMetadata metadata, Path target) {
+        try {
+            storage.downloadTo(blobId(gcsPath, metadata), target);
         } catch (StorageException e) {
             throw new RuntimeException("Failed to download file from GCS: " + gcsPath, e);
         }
     }
 
-    public String uploadFile(byte[] content, String bucketName, String gcsBlobName, String contentType) {
+    // Pinned to the generation getMetadata read, so the download needs no second storage.get
+    private static BlobId blobId(String gcsPath, BlobMetadata metadata) {
+        BlobPath blobPath = BlobPath.parse(gcsPath);
+        return BlobId.of(blobPath.getBucket(), blobPath.getObjectName(), Long.valueOf(metadata.getVersion()));
+    }
+
+    private Blob getBlob(String gcsPath) {
+        // Parse bucket and blob name from gcsPath (e.g., gs://bucket/blob)
+        BlobPath blobPath = BlobPath.parse(gcsPath);
+
+        BlobId blobId = BlobId.of(blobPath.getBucket(), blobPath.getObjectName());
+        Blob blob = storage.get(blobId);
+        if (blob == null) {
+            throw new RuntimeException("File not found in GCS: " + gcsPath);
+        }
+        return blob;
+    }
+
+    @Override
+    public String uploadFile(byte[] content, String bucketName, String gcsBlobName, String contentType,
+                             String contentEncoding) {
         try {
             BlobId blobId = BlobId.of(bucketName, gcsBlobName);
+            // GCS serves Content-Encoding: gzip objects decompressed to clients that don't accept gzip
+            // (decompressive transcoding), signed URLs included
             BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
                                         .setContentType(contentType)
+                                        .setContentEncoding(contentEncoding)
                                         .build();
             storage.create(blobInfo, content);
             return String.format("gs://%s/%s", bucketName, gcsBlobName);
@@ -56,11 +111,18 @@ public class GCSService {
         }
     }
 
+    @Override
+    public boolean supportsContentEncoding() {
+        return true;
+    }
+
     // Expose bucket names if needed by other services
+    @Override
     public String getRawUploadsBucketName() {
         return rawUploadsBucketName;
     }
 
+    @Override
     public String getProcessedFilesBucketName() {
         return processedFilesBucketName;
     }
@@ -0,0 +1,262 @@
+package com.textify.worker.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bounded on-disk LRU cache of raw input objects, so a redelivered or retried job reads its
+ * input from local disk instead of downloading it again. Entries are keyed by storage path and
+ * object version (GCS generation), so a replaced object is never served stale. Finding the
+ * version still takes one metadata request per job (InputPrefetcher calls getMetadata first):
+ * a hit saves the download, not that round trip.
+ * Files in use by a job are pinned and never evicted from under it. Concurrent misses on the
+ * same entry share one download.
+ */
+@Service
+public class InputCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(InputCache.class);
+    private static final String PART_SUFFIX = ".part";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    // Downloads in progress by key; jobs that miss on the same key wait for it instead of downloading again
+    private final Map<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public InputCache(MeterRegistry meterRegistry,
+                      @Value("${textify.worker.input-cache.enabled:false}") boolean enabled,
+                      @Value("${textify.worker.input-cache.dir:${java.io.tmpdir}/textify-input-cache}") String directory,
+                      @Value("${textify.worker.input-cache.max-size:2GB}") DataSize maxSize) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxSize.toBytes();
+        this.hits = Counter.builder("textify.worker.input-cache.requests").tag("result", "hit")
+                .description("Input cache lookups").register(meterRegistry);
+        this.misses = Counter.builder("textify.worker.input-cache.requests").tag("result", "miss")
+                .description("Input cache lookups").register(meterRegistry);
+        this.evictions = Counter.builder("textify.worker.input-cache.evictions")
+                .description("Entries evicted to stay under the size cap").register(meterRegistry);
+        Gauge.builder("textify.worker.input-cache.size", this, InputCache::getTotalBytes)
+                .description("Bytes held in the input cache").baseUnit("bytes").register(meterRegistry);
+    }
+
+    // Rebuilds the index from the files left by the previous run, oldest first
+    @PostConstruct
+    public void load() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(PART_SUFFIX)) {
+                    Files.deleteIfExists(file); // interrupted download
+                } else if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparing(file -> file.toFile().lastModified()));
+        synchronized (this) {
+            for (Path file : files) {
+                long size = file.toFile().length();
+                entries.put(file.getFileName().toString(), new Entry(file, size));
+                totalBytes += size;
+            }
+            evictIfNeeded();
+        }
+        logger.info("Input cache at {} loaded with {} entries ({} bytes).", directory, entries.size(), totalBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached copy of the object, downloading it on a miss. The entry stays pinned
+     * until the returned file is released.
+     *
+     * @param path The storage path of the object.
+     * @param metadata The object's current version, from BlobStore.getMetadata.
+     * @param downloader Writes the object at a storage path into a local file (BlobStore::downloadTo with the metadata).
+     */
+    public CachedFile acquire(String path, BlobMetadata metadata, BiConsumer<String, Path> downloader) {
+        String key = DigestUtils.md5DigestAsHex((path + "#" + metadata.getVersion()).getBytes(StandardCharsets.UTF_8));
+        while (true) {
+            CachedFile cached = pin(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            CompletableFuture<Path> download = new CompletableFuture<>();
+            CompletableFuture<Path> pending = downloads.putIfAbsent(key, download);
+            if (pending == null) {
+                try {
+                    // The previous download of this key may have finished after the lookup above
+                    cached = pin(key);
+                    if (cached == null) {
+                        misses.increment();
+                        cached = download(key, path, downloader);
+                    }
+                    download.complete(cached.getFile());
+                    return cached;
+                } catch (RuntimeException e) {
+                    download.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    downloads.remove(key, download);
+                }
+            }
+            // Another job is downloading the same object; wait for it, then pin its copy (or retry if already evicted)
+            try {
+                pending.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+    }
+
+    private synchronized CachedFile pin(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.pins++;
+        return new CachedFile(key, entry);
+    }
+
+    private CachedFile download(String key, String path, BiConsumer<String, Path> downloader) {
+        Path part = directory.resolve(key + "." + Thread.currentThread().getId() + PART_SUFFIX);
+        Path target = directory.resolve(key);
+        try {
+            downloader.accept(path, part);
+            synchronized (this) {
+                // Account for what is on disk, as load() does, not for what the metadata said
+                long size = Files.size(part);
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Entry entry = new Entry(target, size);
+                entry.pins++;
+                entries.put(key, entry);
+                totalBytes += entry.size;
+                evictIfNeeded();
+                return new CachedFile(key, entry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to cache input " + path, e);
+        } finally {
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                logger.warn("Could not delete partial cache file {}: {}", part, e.getMessage());
+            }
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.pins--;
+        evictIfNeeded();
+    }
+
+    // Caller holds the lock
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.pins > 0) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= entry.size;
+            evictions.increment();
+            try {
+                Files.deleteIfExists(entry.file);
+            } catch (IOException e) {
+                logger.warn("Could not delete evicted cache file {}: {}", entry.file, e.getMessage());
+            }
+        }
+    }
+
+    private static class Entry {
+        private final Path file;
+        private final long size;
+        private int pins; // jobs currently reading this file
+
+        Entry(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    /**
+     * A pinned cache entry. release() must be called once the job is done with the file.
+     */
+    public final class CachedFile {
+        private final String key;
+        private final Entry entry;
+        private boolean released;
+
+        private CachedFile(String key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        public Path getFile() {
+            return entry.file;
+        }
+
+        public long getSize() {
+            return entry.size;
+        }
+
+        public synchronized void release() {
+            if (!released) {
+                released = true;
+                InputCache.this.release(entry);
+                logger.debug("Released input cache entry {}", key);
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.textify.worker.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Downloads job inputs ahead of the OCR stage. The fetch stage runs up to
+ * textify.worker.fetch.concurrency downloads while earlier jobs are still being OCR'd;
+ * this class bounds how much of that lookahead sits on the heap. Inputs that would
+ * exceed the memory budget are streamed to the spill directory instead.
+ */
+@Service
+public class InputPrefetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(InputPrefetcher.class);
+
+    private final BlobStore blobStore;
+    private final InputCache inputCache;
+    private final long memoryBudgetBytes;
+    private final Path spillDirectory;
+    private final AtomicLong bytesInMemory = new AtomicLong();
+    private final Counter spills;
+
+    public InputPrefetcher(BlobStore blobStore, InputCache inputCache, MeterRegistry meterRegistry,
+                           @Value("${textify.worker.prefetch.memory-budget:256MB}") DataSize memoryBudget,
+                           @Value("${textify.worker.prefetch.spill-dir:${java.io.tmpdir}/textify-spill}") String spillDirectory) {
+        this.blobStore = blobStore;
+        this.inputCache = inputCache;
+        this.memoryBudgetBytes = memoryBudget.toBytes();
+        this.spillDirectory = Paths.get(spillDirectory);
+        this.spills = Counter.builder("textify.worker.prefetch.spills")
+                .description("Inputs spilled to local disk because the prefetch memory budget was exhausted")
+                .register(meterRegistry);
+        Gauge.builder("textify.worker.prefetch.memory.bytes", bytesInMemory, AtomicLong::get)
+                .description("Bytes of prefetched input held in memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Downloads the object at the given storage path, in memory if it fits the budget and to
+     * the spill directory otherwise. The object is looked up once; the download reads the version
+     * that lookup found. The caller must close the returned input.
+     */
+    public JobInput fetch(String path) {
+        BlobMetadata metadata = blobStore.getMetadata(path);
+        if (inputCache.isEnabled()) {
+            return fetchThroughCache(path, metadata);
+        }
+        long size = metadata.getSize();
+        if (tryReserve(size)) {
+            try {
+                return JobInput.inMemory(blobStore.downloadFile(path, metadata), () -> bytesInMemory.addAndGet(-size));
+            } catch (RuntimeException e) {
+                bytesInMemory.addAndGet(-size);
+                throw e;
+            }
+        }
+        return spill(path, metadata);
+    }
+
+    // With the input cache on, every input lands on local disk first; the cached file doubles as the spill file
+    private JobInput fetchThroughCache(String path, BlobMetadata metadata) {
+        InputCache.CachedFile cached = inputCache.acquire(path, metadata,
+                (source, target) -> blobStore.downloadTo(source, metadata, target));
+        long size = cached.getSize();
+        if (!tryReserve(size)) {
+            spills.increment();
+            return JobInput.spilled(cached.getFile(), size, cached::release);
+        }
+        try {
+            return JobInput.inMemory(Files.readAllBytes(cached.getFile()), () -> bytesInMemory.addAndGet(-size));
+        } catch (IOException | RuntimeException e) {
+            bytesInMemory.addAndGet(-size);
+            throw new RuntimeException("Failed to read cached input: " + path, e);
+        } finally {
+            cached.release();
+        }
+    }
+
+    private boolean tryReserve(long size) {
+        while (true) {
+            long current = bytesInMemory.get();
+            // Always admit one input on its own, however large, so a big file can't stall forever
+            if (current > 0 && current + size > memoryBudgetBytes) {
+                return false;
+            }
+            if (bytesInMemory.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+
+    private JobInput spill(String path, BlobMetadata metadata) {
+        long size = metadata.getSize();
+        Path spillFile = null;
+        try {
+            Files.createDirectories(spillDirectory);
+            spillFile = Files.createTempFile(spillDirectory, "input-", ".bin");
+            blobStore.downloadTo(path, metadata, spillFile);
+            spills.increment();
+            logger.info("Prefetch budget exhausted; spilled {} ({} bytes) to {}", path, size, spillFile);
+            Path file = spillFile;
+            return JobInput.spilled(file, size, () -> deleteQuietly(file));
+        } catch (IOException | RuntimeException e) {
+            if (spillFile != null) {
+                deleteQuietly(spillFile);
+            }
+            throw new RuntimeException("Failed to spill input to local disk: " + path, e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete spill file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.textify.worker.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.textify.worker.dto.ProcessingRequestPayload;
+import com.textify.worker.model.JobQueueEntry;
+import com.textify.worker.repository.JobQueueRepository;
+
+/**
+ * Consumes the JDBC job queue (textify.queue.backend = jdbc) for deployments without Pub/Sub.
+ * Entries are claimed with FOR UPDATE SKIP LOCKED and hidden for the visibility timeout;
+ * an entry that is neither acked nor nacked in time (e.g. the worker crashed) becomes visible again.
+ */
+@Service
+@ConditionalOnProperty(name = "textify.queue.backend", havingValue = "jdbc")
+public class JdbcJobQueuePoller {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcJobQueuePoller.class);
+
+    private final JobQueueRepository jobQueueRepository;
+    private final JobDispatcher jobDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${textify.queue.jdbc.batch-size:10}")
+    private int batchSize;
+
+    @Value("${textify.queue.jdbc.visibility-timeout:PT10M}")
+    private Duration visibilityTimeout;
+
+    @Value("${textify.queue.jdbc.retry-delay:PT30S}")
+    private Duration retryDelay;
+
+    public JdbcJobQueuePoller(JobQueueRepository jobQueueRepository, JobDispatcher jobDispatcher,
+                              TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+        this.jobQueueRepository = jobQueueRepository;
+        this.jobDispatcher = jobDispatcher;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Scheduled(fixedDelayString = "${textify.queue.jdbc.poll-interval-ms:1000}")
+    public void poll() {
+        // Only claim what the dispatcher can take right now; the rest stays available to other workers.
+        int limit = Math.min(batchSize, jobDispatcher.remainingCapacity());
+        if (limit <= 0) {
+            return;
+        }
+        List<JobQueueEntry> claimed = transactionTemplate.execute(status -> claim(limit));
+        for (JobQueueEntry entry : claimed) {
+            try {
+                ProcessingRequestPayload request = objectMapper.readValue(entry.getPayload(), ProcessingRequestPayload.class);
+                jobDispatcher.dispatch(new JdbcJobDelivery(entry.getId(), request, entry.getAttempts(), entry.getVisibleAt()));
+            } catch (JsonProcessingException e) {
+                logger.error("Dropping unreadable job queue entry {} for job ID {}: {}", entry.getId(), entry.getJobId(), e.getMessage(), e);
+                jobQueueRepository.deleteById(entry.getId());
+            }
+        }
+    }
+
+    private List<JobQueueEntry> claim(int limit) {
+        Instant now = Instant.now();
+        List<JobQueueEntry> entries = new ArrayList<>(jobQueueRepository.lockNextVisible(now, limit));
+        for (JobQueueEntry entry : entries) {
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setVisibleAt(now.plus(visibilityTimeout));
+        }
+        jobQueueRepository.saveAll(entries);
+        if (!entries.isEmpty()) {
+            logger.debug("Claimed {} entries from the JDBC job queue.", entries.size());
+        }
+        return entries;
+    }
+
+    private class JdbcJobDelivery implements JobDelivery {
+        private final Long entryId;
+        private final ProcessingRequestPayload request;
+        private final int attempt;
+        private Instant leaseExpiry; // the entry becomes visible to other workers again at this time
+        private boolean settled;
+
+        JdbcJobDelivery(Long entryId, ProcessingRequestPayload request, int attempt, Instant leaseExpiry) {
+            this.entryId = entryId;
+            this.request = request;
+            this.attempt = attempt;
+            this.leaseExpiry = leaseExpiry;
+        }
+
+        @Override
+        public ProcessingRequestPayload getRequest() {
+            return request;
+        }
+
+        @Override
+        public Integer getDeliveryAttempt() {
+            return attempt;
+        }
+
+        @Override
+        public synchronized Instant getLeaseExpiry() {
+            return leaseExpiry;
+        }
+
+        @Override
+        public synchronized void extendLease() {
+            if (settled) {
+                return; // don't push a nacked entry's retry out again
+            }
+            Instant visibleAt = Instant.now().plus(visibilityTimeout);
+            transactionTemplate.executeWithoutResult(status -> jobQueueRepository.updateVisibleAt(entryId, visibleAt));
+            leaseExpiry = visibleAt;
+        }
+
+        @Override
+        public synchronized void ack() {
+            settled = true;
+            jobQueueRepository.deleteById(entryId);
+        }
+
+        @Override
+        public synchronized void nack() {
+            settled = true;
+            Instant visibleAt = Instant.now().plus(retryDelay);
+            transactionTemplate.executeWithoutResult(status -> jobQueueRepository.updateVisibleAt(entryId, visibleAt));
+        }
+
+        @Override
+        public synchronized void deadLetter(String reason) {
+            // The job_failures row written by the worker is the dead-letter record for this backend
+            settled = true;
+            jobQueueRepository.deleteById(entryId);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.textify.worker.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Estimated cost of OCR'ing one input, see AdmissionController#estimate.
+ */
+@Getter
+@AllArgsConstructor
+public class JobCost {
+
+    private final long heapBytes; // peak heap the OCR stage is expected to need for the job
+    private final int pages;      // page count, used to compare latencies of jobs of different sizes
+}
@@ -0,0 +1,32 @@
+package com.textify.worker.service;
+
+import java.time.Instant;
+
+import com.textify.worker.dto.ProcessingRequestPayload;
+
+/**
+ * A processing request received from the job queue (Pub/Sub or JDBC),
+ * together with the means to settle it once the job has been handled.
+ */
+public interface JobDelivery {
+
+    ProcessingRequestPayload getRequest();
+
+    // Delivery attempt counted by the queue (1 for the first), or null if the queue doesn't report it
+    Integer getDeliveryAttempt();
+
+    // When the queue will hand this delivery to another worker unless it is settled first
+    Instant getLeaseExpiry();
+
+    // Called by the lease heartbeat while the job is in the pipeline, so the queue does not redeliver it
+    void extendLease();
+
+    // The job was handled; the queue must not deliver it again
+    void ack();
+
+    // The job could not be handled; the queue should redeliver it later
+    void nack();
+
+    // The job ran out of attempts; route the message to the dead-letter destination instead of redelivering it
+    void deadLetter(String reason);
+}
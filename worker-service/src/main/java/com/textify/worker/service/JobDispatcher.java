@@ -0,0 +1,180 @@
+package com.textify.worker.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import com.textify.worker.dto.ProcessingRequestPayload;
+import com.textify.worker.exception.JobCancelledException;
+import com.textify.worker.exception.JobFailedException;
+import com.textify.worker.exception.JobLeasedException;
+import com.textify.worker.exception.LeaseExpiredException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs deliveries from the queue consumers (Pub/Sub listener, JDBC poller) through the
+ * staged pipeline: fetch (I/O) -> OCR (CPU) -> persist (I/O), each on its own bounded executor.
+ * While one job is being OCR'd, the next ones are already downloading and the previous one
+ * is uploading. The number of jobs in the pipeline is capped by AdmissionController's adaptive
+ * limit, and dispatch() blocks at the cap, which holds back the queue source.
+ */
+@Service
+public class JobDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobDispatcher.class);
+
+    private final WorkerProcessingService workerProcessingService;
+    private final JobLeaseManager jobLeaseManager;
+    private final Executor fetchExecutor;
+    private final Executor ocrExecutor;
+    private final Executor persistExecutor;
+    private final AdmissionController admissionController;
+    private final Counter expiredLeases;
+    private final Counter duplicateDeliveries;
+    private final Counter cancelledJobs;
+    private final Timer retriedAttempts;
+    private final Timer failedAttempts;
+    private final Timer deadLetteredAttempts;
+
+    public JobDispatcher(WorkerProcessingService workerProcessingService, JobLeaseManager jobLeaseManager,
+                         AdmissionController admissionController, MeterRegistry meterRegistry,
+                         @Qualifier("fetchExecutor") Executor fetchExecutor,
+                         @Qualifier("ocrExecutor") Executor ocrExecutor,
+                         @Qualifier("persistExecutor") Executor persistExecutor) {
+        this.workerProcessingService = workerProcessingService;
+        this.jobLeaseManager = jobLeaseManager;
+        this.fetchExecutor = fetchExecutor;
+        this.ocrExecutor = ocrExecutor;
+        this.persistExecutor = persistExecutor;
+        this.admissionController = admissionController;
+        this.expiredLeases = Counter.builder("textify.worker.prefetch.expired")
+                .description("Prefetched jobs abandoned because their queue lease expired before OCR started")
+                .register(meterRegistry);
+        this.duplicateDeliveries = Counter.builder("textify.worker.deliveries.duplicate")
+                .description("Deliveries dropped because the job was finished or leased by another worker")
+                .register(meterRegistry);
+        this.cancelledJobs = Counter.builder("textify.worker.cancelled")
+                .description("Jobs dropped or stopped part way because they were cancelled")
+                .register(meterRegistry);
+        // Pipeline time spent on attempts that ended in failure, i.e. capacity lost to failing jobs
+        this.retriedAttempts = failedAttemptTimer(meterRegistry, "retried");
+        this.failedAttempts = failedAttemptTimer(meterRegistry, "failed");
+        this.deadLetteredAttempts = failedAttemptTimer(meterRegistry, "dead-lettered");
+    }
+
+    private static Timer failedAttemptTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("textify.worker.failed-attempts").tag("outcome", outcome)
+                .description("Time failed job attempts held a pipeline slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a delivery through the pipeline, blocking while the pipeline is full.
+     * The delivery is acked once the job is persisted and nacked if any stage fails with a
+     * retryable error. Jobs that failed for good are acked, or dead-lettered once out of attempts.
+     */
+    public void dispatch(JobDelivery delivery) {
+        ProcessingRequestPayload request = delivery.getRequest();
+        try {
+            admissionController.acquireSlot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while dispatching job ID {}. Returning it to the queue.", request.getJobId());
+            delivery.nack();
+            return;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            CompletableFuture.supplyAsync(() -> workerProcessingService.fetch(delivery), fetchExecutor)
+                    .thenApplyAsync(workerProcessingService::extract, ocrExecutor)
+                    .thenApplyAsync(work -> {
+                        workerProcessingService.persist(work);
+                        return work;
+                    }, persistExecutor)
+                    .whenComplete((work, error) -> complete(delivery, work, error, startedAt));
+        } catch (RuntimeException e) {
+            // The fetch stage refused the job (e.g. during shutdown)
+            complete(delivery, null, e, startedAt);
+        }
+    }
+
+    // Free pipeline slots; pull-based sources use this to avoid claiming more than can be started
+    public int remainingCapacity() {
+        return admissionController.remainingCapacity();
+    }
+
+    private void complete(JobDelivery delivery, JobWork work, Throwable error, long startedAt) {
+        String jobId = delivery.getRequest().getJobId();
+        try {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause == null) {
+                // Acknowledge the message if processing was successful
+                delivery.ack();
+                logger.info("Successfully processed job: {}. Message acknowledged.", jobId);
+            } else if (cause instanceof JobLeasedException) {
+                // Nacking would bring the duplicate straight back for as long as the job runs
+                duplicateDeliveries.increment();
+                logger.info("{} Dropping duplicate delivery.", cause.getMessage());
+                delivery.ack();
+            } else if (cause instanceof JobCancelledException) {
+                cancelledJobs.increment();
+                logger.info("{} Message acknowledged.", cause.getMessage());
+                delivery.ack();
+            } else if (cause instanceof JobFailedException failure) {
+                if (failure.isRetriesExhausted()) {
+                    deadLetteredAttempts.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    logger.warn("Job ID {} ran out of delivery attempts. Dead-lettering it.", jobId);
+                    delivery.deadLetter(failure.getMessage());
+                } else {
+                    failedAttempts.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    logger.warn("Job ID {} failed permanently. Message acknowledged without retry.", jobId);
+                    delivery.ack();
+                }
+            } else if (cause instanceof LeaseExpiredException) {
+                expiredLeases.increment();
+                logger.warn("{} Returning job ID {} to the queue.", cause.getMessage(), jobId);
+                delivery.nack();
+            } else {
+                retriedAttempts.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                logger.error("Error processing job ID {}: {}", jobId, error.getMessage(), error);
+                // Negative acknowledge so the queue redelivers the job later (with backoff).
+                delivery.nack();
+                logger.warn("Message for job ID {} negatively acknowledged.", jobId);
+            }
+        } finally {
+            try {
+                jobLeaseManager.release(delivery);
+            } catch (RuntimeException e) {
+                // The lease runs out by itself; until then duplicates of the job are dropped
+                logger.warn("Could not release the lease on job ID {}: {}", jobId, e.getMessage());
+            }
+            // Only completed jobs feed the latency signal; failures and drops say little about load
+            Integer pages = work != null ? work.getJob().getPageCount() : null;
+            admissionController.releaseSlot(error == null ? System.nanoTime() - startedAt : 0, pages != null ? pages : 1);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Let in-flight jobs finish before the executors are torn down
+        try {
+            if (!admissionController.awaitIdle(Duration.ofSeconds(30))) {
+                logger.warn("Job dispatcher stopped with {} jobs still in flight.", admissionController.getInFlight());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
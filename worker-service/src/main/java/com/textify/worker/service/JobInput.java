@@ -0,0 +1,65 @@
+package com.textify.worker.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A downloaded input file waiting for (or going through) OCR. Small inputs are held in memory
+ * against the prefetch budget; inputs that don't fit are spilled to a local file.
+ * close() gives the memory back to the budget or deletes the spill file.
+ */
+public final class JobInput implements AutoCloseable {
+
+    private final byte[] bytes;
+    private final Path spillFile;
+    private final long size;
+    private final Runnable onClose;
+    private boolean closed;
+
+    private JobInput(byte[] bytes, Path spillFile, long size, Runnable onClose) {
+        this.bytes = bytes;
+        this.spillFile = spillFile;
+        this.size = size;
+        this.onClose = onClose;
+    }
+
+    static JobInput inMemory(byte[] bytes, Runnable onClose) {
+        return new JobInput(bytes, null, bytes.length, onClose);
+    }
+
+    static JobInput spilled(Path spillFile, long size, Runnable onClose) {
+        return new JobInput(null, spillFile, size, onClose);
+    }
+
+    /**
+     * Returns the whole input; spilled inputs are read back from disk.
+     */
+    public byte[] readAll() {
+        if (bytes != null) {
+            return bytes;
+        }
+        try {
+            return Files.readAllBytes(spillFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read spilled input " + spillFile, e);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            onClose.run();
+        }
+    }
+}
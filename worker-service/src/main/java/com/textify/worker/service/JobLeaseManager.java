@@ -0,0 +1,160 @@
+package com.textify.worker.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.textify.worker.model.Job;
+import com.textify.worker.repository.JobRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * DB-level ownership of jobs. A worker takes a lease on the job row (owner + expiry) before
+ * processing it, so a duplicate delivery of a job that another worker is still working on is
+ * dropped at once. While a job is in the pipeline a heartbeat renews its lease and extends the
+ * queue lease of its delivery; if the worker dies, the lease runs out and JobLeaseSweeper in
+ * api-service requeues the job. A lease that could not be renewed is lost: its delivery is no
+ * longer extended and the pipeline drops the job at its next check. Leased jobs are also polled
+ * for cancellation, in one query for all of them, so the OCR loop only has to check an in-memory flag.
+ */
+@Service
+public class JobLeaseManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseManager.class);
+
+    private final JobRepository jobRepository;
+    private final String owner;
+    private final Duration leaseDuration;
+    private final Map<String, Lease> leased = new ConcurrentHashMap<>();
+    private final Counter lostLeases;
+
+    public JobLeaseManager(JobRepository jobRepository, MeterRegistry meterRegistry,
+                           @Value("${textify.worker.lease.duration:PT2M}") Duration leaseDuration) {
+        this.jobRepository = jobRepository;
+        this.leaseDuration = leaseDuration;
+        this.owner = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.lostLeases = Counter.builder("textify.worker.lease.lost")
+                .description("Job leases that could not be renewed because the job was taken over")
+                .register(meterRegistry);
+        Gauge.builder("textify.worker.lease.held", leased, Map::size)
+                .description("Jobs currently leased by this worker").register(meterRegistry);
+        logger.info("Job leases owned as {}.", owner);
+    }
+
+    /**
+     * Leases the job for this worker and marks it PROCESSING.
+     *
+     * @return false if the job is already finished or leased by another worker (or by this
+     *         worker for another delivery), in which case the delivery is a duplicate.
+     */
+    public boolean acquire(Job job, JobDelivery delivery) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(leaseDuration);
+        if (jobRepository.acquireLease(job.getId(), owner, expiresAt, now) == 0) {
+            return false;
+        }
+        // Keep the entity in step with the row; later stages read the owner and attempt count from it
+        job.setStatus("PROCESSING");
+        job.setAttempts(job.getAttempts() + 1);
+        job.setLeaseOwner(owner);
+        job.setLeaseExpiresAt(expiresAt);
+        job.setUpdatedAt(now);
+        leased.put(job.getId(), new Lease(delivery));
+        return true;
+    }
+
+    // Releases the lease once the delivery is settled; a no-op for deliveries that never held it
+    public void release(JobDelivery delivery) {
+        String jobId = delivery.getRequest().getJobId();
+        Lease lease = leased.get(jobId);
+        if (lease != null && lease.delivery == delivery && leased.remove(jobId, lease)) {
+            jobRepository.releaseLease(jobId, owner, Instant.now());
+        }
+    }
+
+    // Whether the job was cancelled through the API, as of the last poll; cheap enough to call per page
+    public boolean isCancelled(String jobId) {
+        Lease lease = leased.get(jobId);
+        return lease != null && lease.cancelled;
+    }
+
+    // Whether the lease was taken over since it was acquired; the job's work is no longer this worker's
+    public boolean isLost(String jobId) {
+        Lease lease = leased.get(jobId);
+        return lease != null && lease.lost;
+    }
+
+    @Scheduled(fixedDelayString = "${textify.worker.lease.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        Instant expiresAt = Instant.now().plus(leaseDuration);
+        for (Map.Entry<String, Lease> entry : leased.entrySet()) {
+            String jobId = entry.getKey();
+            Lease lease = entry.getValue();
+            if (lease.lost) {
+                continue;
+            }
+            try {
+                if (jobRepository.renewLease(jobId, owner, expiresAt) == 0) {
+                    // Keeping the delivery alive would only hold back the requeued job's redelivery
+                    lease.lost = true;
+                    lostLeases.increment();
+                    logger.warn("Lease on job {} was lost; another worker may be processing it.", jobId);
+                    continue;
+                }
+                lease.delivery.extendLease();
+            } catch (RuntimeException e) {
+                logger.warn("Could not renew the lease on job {}: {}", jobId, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${textify.worker.cancellation.poll-interval-ms:2000}")
+    public void pollCancellations() {
+        if (leased.isEmpty()) {
+            return;
+        }
+        try {
+            for (String jobId : jobRepository.findCancelledIdsIn(new ArrayList<>(leased.keySet()))) {
+                Lease lease = leased.get(jobId);
+                if (lease != null && !lease.cancelled) {
+                    lease.cancelled = true;
+                    logger.info("Job {} was cancelled; stopping its processing.", jobId);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not poll for cancelled jobs: {}", e.getMessage());
+        }
+    }
+
+    private static class Lease {
+        private final JobDelivery delivery;
+        private volatile boolean cancelled;
+        private volatile boolean lost;
+
+        Lease(JobDelivery delivery) {
+            this.delivery = delivery;
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "worker";
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.textify.worker.service;
+
+import java.time.Instant;
+
+import com.textify.worker.dto.ProcessingRequestPayload;
+import com.textify.worker.model.Job;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A job moving through the worker pipeline (fetch -> OCR -> persist).
+ * Each stage fills in its output and clears inputs the later stages no longer need.
+ */
+@Getter
+@Setter
+public class JobWork {
+
+    private final ProcessingRequestPayload request;
+    private final Job job;
+    private final JobDelivery delivery;
+    private JobInput input;            // set by fetch, closed after OCR
+    private String extractedText;      // set by OCR, consumed by persist
+
+    public JobWork(ProcessingRequestPayload request, Job job, JobDelivery delivery) {
+        this.request = request;
+        this.job = job;
+        this.delivery = delivery;
+    }
+
+    // Work not started by then is abandoned, see LeaseExpiredException; the lease heartbeat may extend it
+    public Instant getLeaseExpiry() {
+        return delivery.getLeaseExpiry();
+    }
+}
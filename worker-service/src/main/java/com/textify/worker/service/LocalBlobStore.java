@@ -0,0 +1,155 @@
+package com.textify.worker.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Filesystem-backed BlobStore for on-prem deployments where the api-service and the workers
+ * share a volume (local NVMe or NFS). Each bucket is a directory under the storage root.
+ */
+@Service
+@ConditionalOnProperty(name = "textify.storage.backend", havingValue = "local")
+public class LocalBlobStore implements BlobStore {
+
+    static final String SCHEME = "local";
+
+    private final Path root;
+    private final String rawUploadsBucketName;
+    private final String processedFilesBucketName;
+    private final boolean mmapInputs;
+
+    public LocalBlobStore(@Value("${textify.storage.local.root}") String root,
+                          @Value("${spring.cloud.gcp.storage.bucket-name.raw-uploads}") String rawUploadsBucketName,
+                          @Value("${spring.cloud.gcp.storage.bucket-name.processed-files}") String processedFilesBucketName,
+                          @Value("${textify.storage.local.mmap:true}") boolean mmapInputs) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.rawUploadsBucketName = rawUploadsBucketName;
+        this.processedFilesBucketName = processedFilesBucketName;
+        this.mmapInputs = mmapInputs;
+    }
+
+    @Override
+    public byte[] downloadFile(String path) {
+        Path file = resolve(path);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new RuntimeException("File too large to process: " + path);
+            }
+            byte[] content = new byte[(int) size];
+            if (mmapInputs) {
+                // Copy straight out of the page cache; a heap read() would bounce through a temporary direct buffer
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                mapped.get(content);
+            } else {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // keep reading until the buffer is full or EOF
+                }
+            }
+            return content;
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("File not found in local storage: " + path, e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file from local storage: " + path, e);
+        }
+    }
+
+    @Override
+    public BlobMetadata getMetadata(String path) {
+        try {
+            Path file = resolve(path);
+            long size = Files.size(file);
+            return new BlobMetadata(size, Files.getLastModifiedTime(file).toMillis() + "-" + size);
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("File not found in local storage: " + path, e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file metadata from local storage: " + path, e);
+        }
+    }
+
+    @Override
+    public void downloadTo(String path, Path target) {
+        Path file = resolve(path);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // transferTo lets the kernel copy file to file without passing the bytes through the JVM
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("File not found in local storage: " + path, e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to copy file from local storage: " + path, e);
+        }
+    }
+
+    @Override
+    public String uploadFile(byte[] content, String bucketName, String blobName, String contentType,
+                             String contentEncoding) {
+        // Plain files carry no metadata, so the encoding would be lost and the bytes served as they are
+        if (contentEncoding != null) {
+            throw new IllegalArgumentException("Local storage cannot record Content-Encoding " + contentEncoding);
+        }
+        Path target = resolve(bucketName, blobName);
+        try {
+            Files.createDirectories(target.getParent());
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            return BlobPath.of(SCHEME, bucketName, blobName).toString();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write file to local storage: " + blobName, e);
+        }
+    }
+
+    @Override
+    public String getRawUploadsBucketName() {
+        return rawUploadsBucketName;
+    }
+
+    @Override
+    public String getProcessedFilesBucketName() {
+        return processedFilesBucketName;
+    }
+
+    private Path resolve(String path) {
+        BlobPath blobPath = BlobPath.parse(path);
+        if (!SCHEME.equals(blobPath.getScheme())) {
+            throw new IllegalArgumentException("Invalid local storage path format: " + path);
+        }
+        return resolve(blobPath.getBucket(), blobPath.getObjectName());
+    }
+
+    // Resolves bucket/blob under the storage root, rejecting names that escape it (e.g. "../")
+    private Path resolve(String bucket, String blobName) {
+        Path bucketRoot = root.resolve(bucket).normalize();
+        Path target = bucketRoot.resolve(blobName).normalize();
+        if (!target.startsWith(bucketRoot)) {
+            throw new IllegalArgumentException("Invalid blob name: " + blobName);
+        }
+        return target;
+    }
+}
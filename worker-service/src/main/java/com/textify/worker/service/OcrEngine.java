@@ -0,0 +1,72 @@
+package com.textify.worker.service;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+
+import com.sun.jna.Pointer;
+
+import net.sourceforge.tess4j.ITessAPI.TessBaseAPI;
+import net.sourceforge.tess4j.TessAPI1;
+
+/**
+ * A long-lived libtesseract handle. Unlike tess4j's Tesseract class, which creates, initializes
+ * and tears down a handle and re-encodes the image into a fresh buffer on every doOCR call,
+ * the handle here is initialized once and fed 8-bit gray rasters via SetImage without converting
+ * them to another image type first.
+ * Not thread-safe; borrow engines from an OcrEnginePool.
+ */
+public final class OcrEngine implements AutoCloseable {
+
+    private final TessBaseAPI handle;
+
+    OcrEngine(String dataPath, String language, int ocrEngineMode, int pageSegMode) {
+        this.handle = TessAPI1.TessBaseAPICreate();
+        if (TessAPI1.TessBaseAPIInit2(handle, dataPath, language, ocrEngineMode) != 0) {
+            TessAPI1.TessBaseAPIDelete(handle);
+            throw new IllegalStateException("Could not initialize Tesseract with data path " + dataPath + " and language " + language);
+        }
+        TessAPI1.TessBaseAPISetPageSegMode(handle, pageSegMode);
+    }
+
+    /**
+     * Recognizes the text of an 8-bit gray image (BufferedImage.TYPE_BYTE_GRAY).
+     *
+     * @param image The page or image to recognize.
+     * @param dpi The resolution the image was rendered or scanned at.
+     * @return The recognized text.
+     */
+    public String recognize(BufferedImage image, int dpi) {
+        if (image.getType() != BufferedImage.TYPE_BYTE_GRAY) {
+            throw new IllegalArgumentException("OCR engine expects 8-bit gray images, got image type " + image.getType());
+        }
+        WritableRaster raster = image.getRaster();
+        if (raster.getParent() != null) {
+            throw new IllegalArgumentException("OCR engine expects a top-level raster, not a sub-image");
+        }
+        int bytesPerLine = ((ComponentSampleModel) raster.getSampleModel()).getScanlineStride();
+        byte[] pixels = ((DataBufferByte) raster.getDataBuffer()).getData();
+
+        // The pixels are still copied twice: JNA copies the heap buffer to native memory for the call,
+        // and SetImage copies that into a Leptonica Pix. Neither is avoidable with on-heap rasters.
+        TessAPI1.TessBaseAPISetImage(handle, ByteBuffer.wrap(pixels), image.getWidth(), image.getHeight(), 1, bytesPerLine);
+        TessAPI1.TessBaseAPISetSourceResolution(handle, dpi);
+        Pointer text = TessAPI1.TessBaseAPIGetUTF8Text(handle);
+        try {
+            return text == null ? "" : text.getString(0, "UTF-8");
+        } finally {
+            if (text != null) {
+                TessAPI1.TessDeleteText(text);
+            }
+            TessAPI1.TessBaseAPIClear(handle); // drop the page and results, keep the loaded models
+        }
+    }
+
+    @Override
+    public void close() {
+        TessAPI1.TessBaseAPIEnd(handle);
+        TessAPI1.TessBaseAPIDelete(handle);
+    }
+}
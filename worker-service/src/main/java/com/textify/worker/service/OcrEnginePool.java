@@ -0,0 +1,85 @@
+package com.textify.worker.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size pool of OcrEngines. Engines are created lazily, up to maxEngines, and kept for the
+ * life of the pool, so the language models are loaded once per engine rather than once per page.
+ */
+public class OcrEnginePool implements AutoCloseable {
+
+    private final Supplier<OcrEngine> engineFactory;
+    private final int maxEngines;
+    private final LinkedBlockingQueue<OcrEngine> idle = new LinkedBlockingQueue<>();
+    private final List<OcrEngine> all = new ArrayList<>();
+    private boolean closed;
+
+    public OcrEnginePool(Supplier<OcrEngine> engineFactory, int maxEngines) {
+        this.engineFactory = engineFactory;
+        this.maxEngines = maxEngines;
+    }
+
+    /**
+     * Runs the work with an engine borrowed from the pool, waiting for one if all are busy.
+     * The engine goes back to the pool afterwards, even if the work fails.
+     */
+    public <T> T withEngine(Function<OcrEngine, T> work) {
+        OcrEngine engine = borrow();
+        try {
+            return work.apply(engine);
+        } finally {
+            giveBack(engine);
+        }
+    }
+
+    private OcrEngine borrow() {
+        OcrEngine engine = idle.poll();
+        if (engine != null) {
+            return engine;
+        }
+        synchronized (all) {
+            // A closed pool still serves callers that got hold of it before it was closed
+            if (all.size() < maxEngines || closed) {
+                engine = engineFactory.get();
+                all.add(engine);
+                return engine;
+            }
+        }
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an OCR engine", e);
+        }
+    }
+
+    private void giveBack(OcrEngine engine) {
+        synchronized (all) {
+            if (closed) {
+                all.remove(engine);
+                engine.close();
+            } else {
+                idle.add(engine);
+            }
+        }
+    }
+
+    /**
+     * Closes the idle engines now and engines in use as they are given back.
+     */
+    @Override
+    public void close() {
+        synchronized (all) {
+            closed = true;
+            OcrEngine engine;
+            while ((engine = idle.poll()) != null) {
+                all.remove(engine);
+                engine.close();
+            }
+        }
+    }
+}
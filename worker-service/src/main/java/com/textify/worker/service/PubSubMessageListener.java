@@ -1,26 +1,44 @@
 package com.textify.worker.service;
 
+import java.time.Duration;
+import java.time.Instant;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.pubsub.v1.Subscriber;
+import com.google.cloud.spring.pubsub.core.PubSubTemplate;
 import com.google.cloud.spring.pubsub.support.BasicAcknowledgeablePubsubMessage;
 import com.google.cloud.spring.pubsub.support.GcpPubSubHeaders;
+import com.google.pubsub.v1.PubsubMessage;
+import com.textify.worker.dto.ProcessingRequestPayload;
 
 @Service
+@ConditionalOnProperty(name = "textify.queue.backend", havingValue = "pubsub", matchIfMissing = true)
 public class PubSubMessageListener {
 
     private static final Logger logger = LoggerFactory.getLogger(PubSubMessageListener.class);
-    private final WorkerProcessingService workerProcessingService;
+    private final JobDispatcher jobDispatcher;
     private final ObjectMapper objectMapper;
+    private final PubSubTemplate pubSubTemplate;
+    private final Duration leaseDuration;
+    private final String deadLetterTopic;
 
-    public PubSubMessageListener(WorkerProcessingService workerProcessingService, ObjectMapper objectMapper) {
-        this.workerProcessingService = workerProcessingService;
+    public PubSubMessageListener(JobDispatcher jobDispatcher, ObjectMapper objectMapper, PubSubTemplate pubSubTemplate,
+            @Value("${textify.queue.pubsub.lease-duration:PT10M}") Duration leaseDuration,
+            @Value("${textify.queue.pubsub.dead-letter-topic:textify-processing-dead-letter}") String deadLetterTopic) {
+        this.jobDispatcher = jobDispatcher;
         this.objectMapper = objectMapper;
+        this.pubSubTemplate = pubSubTemplate;
+        this.leaseDuration = leaseDuration;
+        this.deadLetterTopic = deadLetterTopic;
     }
 
     // Listen to messages from the configured Pub/Sub subscription
@@ -28,51 +46,83 @@ public class PubSubMessageListener {
     public void receiveMessage(String payload, // The message data as a String (JSON payload)
             @Header(GcpPubSubHeaders.ORIGINAL_MESSAGE) BasicAcknowledgeablePubsubMessage message) {
         logger.info("Received message: {}", payload);
+        Instant leaseExpiry = Instant.now().plus(leaseDuration);
+        ProcessingRequestPayload request;
         try {
-
             // Deserialize the JSON payload into our processing request DTO
-            ProcessingRequestPayload request = objectMapper.readValue(payload, ProcessingRequestPayload.class);
+            request = objectMapper.readValue(payload, ProcessingRequestPayload.class);
+        } catch (JsonProcessingException e) {
+            logger.error("Error deserializing Pub/Sub message payload '{}': {}", payload, e.getMessage(), e);
+            message.nack();
+            return;
+        }
 
-            // Delegate the actual heavy lifting to the WorkerProcessingService
-            workerProcessingService.processJobWithRetry(request.jobId, request.userId, request.originalGcsPath);
+        // Hand the job to the dispatcher; it acks or nacks the message once processing finishes.
+        // Blocks while the dispatcher is full, which holds back further deliveries from the subscriber.
+        jobDispatcher.dispatch(new PubSubJobDelivery(request, message, leaseExpiry));
+    }
 
-            // Acknowledge the message if processing was successful
-            message.ack();
-            logger.info("Message for job ID {} acknowledged successfully.", request.jobId);
+    private class PubSubJobDelivery implements JobDelivery {
+        private final ProcessingRequestPayload request;
+        private final BasicAcknowledgeablePubsubMessage message;
+        private final Instant leaseExpiry;
 
-        } catch (Exception e) {
-            logger.error("Error processing Pub/Sub message for payload '{}': {}", payload, e.getMessage(), e);
-            // Negative acknowledge the message if an error occurred.
-            // This tells Pub/Sub to redeliver the message later (with backoff).
-            message.nack();
-            logger.warn("Message for job ID {} negatively acknowledged.", getJobIdFromPayload(payload));
+        PubSubJobDelivery(ProcessingRequestPayload request, BasicAcknowledgeablePubsubMessage message, Instant leaseExpiry) {
+            this.request = request;
+            this.message = message;
+            this.leaseExpiry = leaseExpiry;
         }
-    }
 
-    // Helper to extract jobId from payload string for logging on nack
-    private String getJobIdFromPayload(String payload) {
-        try {
-            return objectMapper.readTree(payload).get("jobId").asText();
-        } catch (JsonProcessingException e) {
-            return "unknown";
+        @Override
+        public ProcessingRequestPayload getRequest() {
+            return request;
+        }
+
+        @Override
+        public Integer getDeliveryAttempt() {
+            // Only set when the subscription has a dead-letter policy; the worker counts attempts itself otherwise
+            return Subscriber.getDeliveryAttempt(message.getPubsubMessage());
+        }
+
+        @Override
+        public Instant getLeaseExpiry() {
+            return leaseExpiry;
         }
-    }
 
-    // This DTO defines the structure of the message received from Pub/Sub
-    // Must match the payload structure from PubSubPublisherService in api-service
-    private static class ProcessingRequestPayload {
-        public String jobId;
-        public String userId; 
-        public String originalGcsPath;
+        @Override
+        public void extendLease() {
+            // The subscriber client extends ack deadlines of unsettled messages by itself, up to
+            // spring.cloud.gcp.pubsub.subscriber.max-ack-extension-period after receipt
+        }
 
-        // Required by Jackson for deserialization
-        public ProcessingRequestPayload() {
+        @Override
+        public void ack() {
+            message.ack();
+        }
+
+        @Override
+        public void nack() {
+            message.nack();
         }
 
-        public ProcessingRequestPayload(String jobId, String originalGcsPath, String userId) {
-            this.jobId = jobId;
-            this.originalGcsPath = originalGcsPath;
-            this.userId = userId;
+        @Override
+        public void deadLetter(String reason) {
+            if (deadLetterTopic.isBlank()) {
+                message.ack(); // no dead-letter topic configured; the job_failures row is the only record
+                return;
+            }
+            PubsubMessage deadLetter = message.getPubsubMessage().toBuilder()
+                    .putAttributes("textify-dead-letter-reason", reason)
+                    .build();
+            // Ack only once the dead letter is safely published; otherwise the message comes back and is retried
+            pubSubTemplate.publish(deadLetterTopic, deadLetter).whenComplete((messageId, error) -> {
+                if (error == null) {
+                    message.ack();
+                } else {
+                    logger.error("Failed to dead-letter job ID {}: {}", request.getJobId(), error.getMessage(), error);
+                    message.nack();
+                }
+            });
         }
     }
-}
\ No newline at end of file
+}
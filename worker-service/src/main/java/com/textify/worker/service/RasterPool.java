@@ -0,0 +1,119 @@
+package com.textify.worker.service;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Pool of 8-bit gray pixel buffers for page rendering. A rendered 300 DPI page is several
+ * megabytes, and allocating one per page under concurrent jobs churns the heap; instead pages
+ * are drawn into pooled arrays that are reused across pages and jobs. Buffers are bucketed by
+ * size (rounded up to bucket-size) so pages of slightly different dimensions share a bucket.
+ * The buffers are plain heap arrays: pooling saves the allocation, not the copies OcrEngine
+ * makes when handing the pixels to libtesseract.
+ */
+@Service
+public class RasterPool {
+
+    private static final ColorModel GRAY = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_GRAY),
+            new int[] {8}, false, true, Transparency.OPAQUE, DataBuffer.TYPE_BYTE);
+
+    private final long maxRetainedBytes;
+    private final int bucketBytes;
+    private final Map<Integer, ConcurrentLinkedDeque<byte[]>> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong retainedBytes = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RasterPool(MeterRegistry meterRegistry,
+                      @Value("${textify.worker.raster-pool.max-size:256MB}") DataSize maxSize,
+                      @Value("${textify.worker.raster-pool.bucket-size:1MB}") DataSize bucketSize) {
+        this.maxRetainedBytes = maxSize.toBytes();
+        this.bucketBytes = (int) bucketSize.toBytes();
+        this.hits = Counter.builder("textify.worker.raster-pool.requests").tag("result", "hit")
+                .description("Raster buffer requests").register(meterRegistry);
+        this.misses = Counter.builder("textify.worker.raster-pool.requests").tag("result", "miss")
+                .description("Raster buffer requests").register(meterRegistry);
+        Gauge.builder("textify.worker.raster-pool.retained", retainedBytes, AtomicLong::get)
+                .description("Bytes of idle raster buffers held by the pool").baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Returns a gray image of the given size backed by a pooled buffer. The pixels are not
+     * cleared; callers draw over the whole image. Close the raster to return the buffer.
+     */
+    public PooledRaster acquire(int width, int height) {
+        long needed = (long) width * height;
+        if (needed > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Raster too large: " + width + "x" + height);
+        }
+        int bucket = (int) ((needed + bucketBytes - 1) / bucketBytes);
+        byte[] pixels = buckets.computeIfAbsent(bucket, b -> new ConcurrentLinkedDeque<>()).pollFirst();
+        if (pixels != null) {
+            retainedBytes.addAndGet(-pixels.length);
+            hits.increment();
+        } else {
+            pixels = new byte[(int) Math.min((long) bucket * bucketBytes, Integer.MAX_VALUE)];
+            misses.increment();
+        }
+        WritableRaster raster = Raster.createInterleavedRaster(new DataBufferByte(pixels, pixels.length),
+                width, height, width, 1, new int[] {0}, null);
+        return new PooledRaster(bucket, pixels, new BufferedImage(GRAY, raster, false, null));
+    }
+
+    private void release(int bucket, byte[] pixels) {
+        // Over the cap the buffer is simply dropped for the GC
+        if (retainedBytes.addAndGet(pixels.length) <= maxRetainedBytes) {
+            buckets.get(bucket).offerFirst(pixels);
+        } else {
+            retainedBytes.addAndGet(-pixels.length);
+        }
+    }
+
+    /**
+     * A gray image on loan from the pool. The image must not be used after close().
+     */
+    public final class PooledRaster implements AutoCloseable {
+        private final int bucket;
+        private final byte[] pixels;
+        private final BufferedImage image;
+        private boolean closed;
+
+        private PooledRaster(int bucket, byte[] pixels, BufferedImage image) {
+            this.bucket = bucket;
+            this.pixels = pixels;
+            this.image = image;
+        }
+
+        public BufferedImage getImage() {
+            return image;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(bucket, pixels);
+            }
+        }
+    }
+}
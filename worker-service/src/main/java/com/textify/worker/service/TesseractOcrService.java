@@ -1,28 +1,59 @@
 package com.textify.worker.service;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
 
 import javax.annotation.PostConstruct;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
-import net.sourceforge.tess4j.ITesseract;
-import net.sourceforge.tess4j.Tesseract;
-import net.sourceforge.tess4j.TesseractException;
+import com.textify.worker.dto.OcrProfile;
+import com.textify.worker.exception.JobCancelledException;
+import com.textify.worker.exception.UnprocessableInputException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class TesseractOcrService {
   private static final Logger logger = LoggerFactory.getLogger(TesseractOcrService.class);
 
+    private static final int DEFAULT_DPI = 300;
+    private static final int DEFAULT_PAGE_SEG_MODE = 1; // Auto page segmentation (PSM.AUTO)
+    private static final int OCR_ENGINE_MODE = 1; // Tesseract LSTM Only (or 0 for legacy, 3 for both)
+    private static final int MIN_DPI = 70;
+    private static final int MAX_OVERLAP_LINES = 8;
+    private static final int INK_THRESHOLD = 160; // gray levels below this count as ink
+
     @Value("${tesseract.path}")
     private String tesseractPath;
 
@@ -32,23 +63,72 @@ public class TesseractOcrService {
     @Value("${tesseract.language}")
     private String tesseractLang;
 
-    private ITesseract tesseract; // The tess4j instance
+    // Model sets for profiles asking for "fast" or "best"; jobs without a model use tesseract.data-path
+    @Value("${tesseract.data-path-fast:${tesseract.data-path}}")
+    private String tesseractFastDataPath;
+
+    @Value("${tesseract.data-path-best:${tesseract.data-path}}")
+    private String tesseractBestDataPath;
+
+    // One engine per OCR thread by default; engines are created on first use
+    @Value("${textify.worker.ocr.threads:0}")
+    private int ocrThreads;
+
+    // Engine pools kept for distinct profiles (model set, languages, PSM); the least recently used is closed beyond this
+    @Value("${textify.worker.ocr.max-profiles:4}")
+    private int maxProfiles;
+
+    // Images above tile.threshold-pixels are decoded and OCR'd as overlapping horizontal strips
+    @Value("${textify.worker.ocr.tile.threshold-pixels:16000000}")
+    private long tileThresholdPixels;
+
+    @Value("${textify.worker.ocr.tile.height:2048}")
+    private int tileHeight;
+
+    @Value("${textify.worker.ocr.tile.overlap:128}")
+    private int tileOverlap;
+
+    // Images above max-pixels are subsampled while decoding
+    @Value("${textify.worker.ocr.max-pixels:120000000}")
+    private long maxPixels;
+
+    // Scanned PDF pages are first rendered at blank.dpi; pages with less ink than blank.max-ink-ratio skip OCR
+    @Value("${textify.worker.ocr.blank.enabled:true}")
+    private boolean blankDetectionEnabled;
 
-    // Initialize the Tesseract instance after Spring injects properties
+    @Value("${textify.worker.ocr.blank.dpi:36}")
+    private int blankDpi;
+
+    @Value("${textify.worker.ocr.blank.max-ink-ratio:0.002}")
+    private double blankMaxInkRatio;
+
+    private final RasterPool rasterPool;
+    private final ThreadPoolTaskExecutor ocrTileExecutor;
+    private final Counter ocrPages;
+    private final Counter blankPages;
+    private final Counter reclaimedSeconds;
+    // Access-ordered, keyed by data path, languages and PSM
+    private final LinkedHashMap<String, OcrEnginePool> enginePools = new LinkedHashMap<>(8, 0.75f, true);
+
+    public TesseractOcrService(RasterPool rasterPool,
+                               @Qualifier("ocrTileExecutor") ThreadPoolTaskExecutor ocrTileExecutor,
+                               MeterRegistry meterRegistry) {
+        this.rasterPool = rasterPool;
+        this.ocrTileExecutor = ocrTileExecutor;
+        this.ocrPages = Counter.builder("textify.worker.ocr.pages").tag("result", "ocr")
+                .description("Scanned PDF pages by outcome").register(meterRegistry);
+        this.blankPages = Counter.builder("textify.worker.ocr.pages").tag("result", "blank")
+                .description("Scanned PDF pages by outcome").register(meterRegistry);
+        this.reclaimedSeconds = Counter.builder("textify.worker.cancellation.reclaimed")
+                .description("Estimated OCR CPU time not spent on the remaining pages of cancelled PDFs")
+                .baseUnit("seconds").register(meterRegistry);
+    }
+
+    // Validate the Tesseract configuration after Spring injects properties
     @PostConstruct
     public void init() {
-        this.tesseract = new Tesseract();
-        this.tesseract.setDatapath(tesseractDataPath);
-        this.tesseract.setLanguage(tesseractLang);
-        this.tesseract.setTessVariable("user_defined_dpi", "300"); // Example: Set DPI for better recognition
-        // You might need to set the path to the executable if not in system PATH
-        // If 'tesseract.path' is correctly configured and Tesseract is in system PATH, this might not be strictly needed.
-        // However, explicitly setting it is safer.
-        this.tesseract.setTessVariable("TESSDATA_PREFIX", tesseractDataPath); // Ensure Tesseract finds data files
-        this.tesseract.setPageSegMode(1); // Auto page segmentation mode (e.g., PSM.AUTO)
-        this.tesseract.setOcrEngineMode(1); // Tesseract LSTM Only (or 0 for legacy, 3 for both)
-        logger.info("Tesseract initialized with path: {}, data-path: {}, language: {}",
-                tesseractPath, tesseractDataPath, tesseractLang);
+        logger.info("Tesseract initialized with path: {}, data-path: {}, language: {}, fast models: {}, best models: {}",
+                tesseractPath, tesseractDataPath, tesseractLang, tesseractFastDataPath, tesseractBestDataPath);
 
         // Verify if tesseract executable exists
         if (!new java.io.File(tesseractPath).exists()) {
@@ -57,43 +137,182 @@ public class TesseractOcrService {
         }
     }
 
+    @PreDestroy
+    public synchronized void shutdown() {
+        enginePools.values().forEach(OcrEnginePool::close);
+        enginePools.clear();
+    }
 
     /**
      * Extracts text from an image (e.g., JPG, PNG).
+     * Very large images (big scans, long stitched receipts) are decoded once and OCR'd in
+     * parallel as overlapping strips.
      *
      * @param imageBytes The byte array of the image file.
-     * @return The extracted text.
-     * @throws RuntimeException if OCR fails or image cannot be read.
+     * @param profile The job's OCR settings; null fields use the defaults.
+     * @param cancelled Checked between strips of a large image.
+     * @return The extracted text, as a single page.
+     * @throws UnprocessableInputException if the image cannot be read.
      */
-    public String extractTextFromImage(byte[] imageBytes) {
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(imageBytes)) {
-            BufferedImage image = ImageIO.read(bis);
-            if (image == null) {
-                throw new IllegalArgumentException("Could not read image bytes into BufferedImage.");
+    public ExtractionResult extractTextFromImage(byte[] imageBytes, OcrProfile profile, BooleanSupplier cancelled) {
+        OcrEnginePool enginePool = enginePool(profile);
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new UnprocessableInputException("Could not read image bytes: unrecognised image format.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Subsample huge images down to maxPixels; the effective resolution drops with it
+                int subsampling = (int) Math.max(1, Math.ceil(Math.sqrt((double) width * height / maxPixels)));
+                int dpi = Math.max(dpi(profile) / subsampling, MIN_DPI);
+                long outputPixels = (long) ceilDiv(width, subsampling) * ceilDiv(height, subsampling);
+
+                logger.info("Performing OCR on image ({}x{}, subsampling {})", width, height, subsampling);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                String result;
+                if (outputPixels <= tileThresholdPixels) {
+                    BufferedImage gray = toGray(reader.read(0, param));
+                    result = enginePool.withEngine(engine -> engine.recognize(gray, dpi));
+                } else {
+                    result = recognizeInStrips(reader.read(0, param), dpi, enginePool, cancelled);
+                }
+                logger.info("OCR completed for image. Text length: {}", result.length());
+                return new ExtractionResult(result, 1, 0, 1);
+            } finally {
+                reader.dispose();
             }
-            logger.info("Performing OCR on image ({}x{})", image.getWidth(), image.getHeight());
-            String result = tesseract.doOCR(image);
-            logger.info("OCR completed for image. Text length: {}", result.length());
-            return result;
         } catch (IOException e) {
             logger.error("Error reading image bytes for OCR: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to read image for OCR: " + e.getMessage(), e);
-        } catch (TesseractException e) {
-            logger.error("Tesseract OCR failed for image: {}", e.getMessage(), e);
-            throw new RuntimeException("OCR processing failed: " + e.getMessage(), e);
+            throw new UnprocessableInputException("Failed to read image for OCR: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Converts the decoded image to gray once, then copies it out as full-width strips that
+     * overlap by tileOverlap rows and OCRs each strip on the tile executor. The image is decoded
+     * in a single pass: PNG and baseline JPEG readers can't seek, so reading each strip with a
+     * source region would decode every row above it again. The whole gray image is held while
+     * the strips are copied out, then returned to the pool before the OCR results are awaited.
+     * On cancellation, strips not yet started are dropped.
+     */
+    private String recognizeInStrips(BufferedImage decoded, int dpi, OcrEnginePool enginePool,
+                                     BooleanSupplier cancelled) {
+        int width = decoded.getWidth();
+        int height = decoded.getHeight();
+        List<CompletableFuture<String>> strips = new ArrayList<>();
+        try (RasterPool.PooledRaster gray = rasterPool.acquire(width, height)) {
+            Graphics2D g = gray.getImage().createGraphics();
+            try {
+                g.drawImage(decoded, 0, 0, null);
+            } finally {
+                g.dispose();
+            }
+            decoded = null; // let the codec's image go before the strip copies are made
+            byte[] pixels = ((DataBufferByte) gray.getImage().getRaster().getDataBuffer()).getData();
+            for (int y : stripStarts(height, tileHeight, tileHeight - tileOverlap)) {
+                if (cancelled.getAsBoolean()) {
+                    strips.forEach(strip -> strip.cancel(false));
+                    throw new JobCancelledException("OCR stopped at row " + y + " of " + height + ": job was cancelled.");
+                }
+                int rows = Math.min(tileHeight, height - y);
+                RasterPool.PooledRaster strip = rasterPool.acquire(width, rows);
+                // Pooled rasters are packed rows of width bytes, so a strip is one contiguous range
+                System.arraycopy(pixels, y * width,
+                        ((DataBufferByte) strip.getImage().getRaster().getDataBuffer()).getData(), 0, rows * width);
+                // Strips cancelled before they start are not closed; their buffers go to the GC
+                strips.add(CompletableFuture.supplyAsync(() -> {
+                    try (strip) {
+                        return enginePool.withEngine(engine -> engine.recognize(strip.getImage(), dpi));
+                    }
+                }, ocrTileExecutor));
+            }
+        }
+        logger.debug("Image split into {} strips", strips.size());
+        List<String> texts = new ArrayList<>(strips.size());
+        for (CompletableFuture<String> strip : strips) {
+            texts.add(strip.join());
+        }
+        return mergeStrips(texts);
+    }
+
+    // First rows of the strips that cover the image, step rows apart; the last one reaches the bottom edge
+    static List<Integer> stripStarts(int height, int stripRows, int step) {
+        List<Integer> starts = new ArrayList<>();
+        for (int y = 0; y < height; y += step) {
+            starts.add(y);
+            if (y + stripRows >= height) {
+                break;
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Joins strip texts in reading order. Lines in the overlap band come out of both strips;
+     * the leading lines of a strip that repeat the trailing lines of the text so far are dropped.
+     */
+    static String mergeStrips(List<String> stripTexts) {
+        List<String> merged = new ArrayList<>();
+        for (String text : stripTexts) {
+            List<String> lines = text.lines().toList();
+            merged.addAll(lines.subList(overlappingLines(merged, lines), lines.size()));
+        }
+        return String.join("\n", merged);
+    }
+
+    // Number of leading lines of next that repeat the end of previous, ignoring whitespace and blank lines
+    static int overlappingLines(List<String> previous, List<String> next) {
+        List<String> tail = new ArrayList<>();
+        for (int i = previous.size() - 1; i >= 0 && tail.size() < MAX_OVERLAP_LINES; i--) {
+            String line = normalize(previous.get(i));
+            if (!line.isEmpty()) {
+                tail.add(0, line);
+            }
         }
+        List<Integer> head = new ArrayList<>(); // indexes of the first non-blank lines of next
+        for (int i = 0; i < next.size() && head.size() < MAX_OVERLAP_LINES; i++) {
+            if (!normalize(next.get(i)).isEmpty()) {
+                head.add(i);
+            }
+        }
+        for (int k = Math.min(tail.size(), head.size()); k > 0; k--) {
+            boolean matches = true;
+            for (int i = 0; i < k && matches; i++) {
+                matches = tail.get(tail.size() - k + i).equals(normalize(next.get(head.get(i))));
+            }
+            if (matches) {
+                return head.get(k - 1) + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static String normalize(String line) {
+        return line.replaceAll("\\s+", " ").strip();
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
     }
 
     /**
      * Extracts text from a PDF document.
      * This method attempts to extract native text first using PDFBox.
-     * If no text is found (e.g., scanned PDF), it falls back to OCRing each page as an image.
+     * If no text is found (e.g., scanned PDF), it falls back to OCRing each page as an image,
+     * skipping pages that a low resolution render shows to be blank.
      *
      * @param pdfBytes The byte array of the PDF file.
-     * @return The extracted text.
+     * @param profile The job's OCR settings; null fields use the defaults.
+     * @param cancelled Checked between pages; OCR stops at the next page once it returns true.
+     * @return The extracted text and page stats.
      * @throws RuntimeException if PDF processing or OCR fails.
      */
-    public String extractTextFromPdf(byte[] pdfBytes) {
+    public ExtractionResult extractTextFromPdf(byte[] pdfBytes, OcrProfile profile, BooleanSupplier cancelled) {
         try (PDDocument document = PDDocument.load(pdfBytes)) {
             // Strategy 1: Try to extract native text using PDFBox (faster and more accurate for text-based PDFs)
             PDFTextStripper pdfTextStripper = new PDFTextStripper();
@@ -101,29 +320,182 @@ public class TesseractOcrService {
 
             if (nativeText != null && !nativeText.trim().isEmpty()) {
                 logger.info("Native text extracted from PDF. Length: {}", nativeText.length());
-                return nativeText;
+                return new ExtractionResult(nativeText, document.getNumberOfPages(), 0, 0);
             } else {
                 logger.info("No native text found in PDF, falling back to OCR for each page.");
                 // Strategy 2: If no native text, assume it's a scanned PDF and perform OCR page by page
+                OcrEnginePool enginePool = enginePool(profile);
+                int dpi = dpi(profile);
                 PDFRenderer pdfRenderer = new PDFRenderer(document);
+                // Blank checks only need a rough picture; let PDFBox subsample embedded scans
+                PDFRenderer previewRenderer = new PDFRenderer(document);
+                previewRenderer.setSubsamplingAllowed(true);
                 StringBuilder ocrText = new StringBuilder();
+                int blank = 0;
+                int ocred = 0;
+                long ocrNanos = 0;
                 for (int page = 0; page < document.getNumberOfPages(); page++) {
+                    // A flag read; the engine from the previous page is already back in the pool
+                    if (cancelled.getAsBoolean()) {
+                        int remaining = document.getNumberOfPages() - page;
+                        if (ocred > 0) {
+                            reclaimedSeconds.increment(remaining * (ocrNanos / (double) ocred) / 1e9);
+                        }
+                        throw new JobCancelledException("OCR stopped at page " + (page + 1) + " of "
+                                + document.getNumberOfPages() + ": job was cancelled.");
+                    }
+                    if (blankDetectionEnabled && isBlank(previewRenderer, document.getPage(page), page)) {
+                        logger.info("Page {} of PDF is blank, skipping OCR.", page + 1);
+                        blank++;
+                        blankPages.increment();
+                        continue;
+                    }
                     logger.info("OCR'ing page {} of PDF...", page + 1);
-                    // Render PDF page to a BufferedImage
+                    ocrPages.increment();
                     // DPI (dots per inch) can significantly impact OCR quality. 300 DPI is a common good starting point.
-                    BufferedImage image = pdfRenderer.renderImageWithDPI(page, 300);
-                    String pageText = tesseract.doOCR(image);
-                    ocrText.append(pageText).append("\n"); // Add newline between pages
+                    long pageStart = System.nanoTime();
+                    try (RasterPool.PooledRaster raster = renderPage(pdfRenderer, document.getPage(page), page, dpi)) {
+                        String pageText = enginePool.withEngine(engine -> engine.recognize(raster.getImage(), dpi));
+                        ocrText.append(pageText).append("\n"); // Add newline between pages
+                    }
+                    ocrNanos += System.nanoTime() - pageStart;
+                    ocred++;
                 }
-                logger.info("OCR completed for PDF. Total text length: {}", ocrText.length());
-                return ocrText.toString();
+                logger.info("OCR completed for PDF. Total text length: {}, blank pages: {}", ocrText.length(), blank);
+                return new ExtractionResult(ocrText.toString(), document.getNumberOfPages(), blank, ocred);
             }
         } catch (IOException e) {
             logger.error("Error loading or processing PDF bytes: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to read or render PDF: " + e.getMessage(), e);
-        } catch (TesseractException e) {
-            logger.error("Tesseract OCR failed for PDF: {}", e.getMessage(), e);
-            throw new RuntimeException("OCR processing failed for PDF: " + e.getMessage(), e);
+            throw new UnprocessableInputException("Failed to read or render PDF: " + e.getMessage(), e);
+        }
+    }
+
+    static int dpi(OcrProfile profile) {
+        return profile != null && profile.getDpi() != null ? profile.getDpi() : DEFAULT_DPI;
+    }
+
+    /**
+     * Returns the engine pool for the profile's model set, languages and page segmentation mode,
+     * creating it on first use so each combination loads its models once.
+     */
+    synchronized OcrEnginePool enginePool(OcrProfile profile) {
+        String dataPath = tesseractDataPath;
+        String languages = tesseractLang;
+        int pageSegMode = DEFAULT_PAGE_SEG_MODE;
+        if (profile != null) {
+            if ("fast".equals(profile.getModel())) {
+                dataPath = tesseractFastDataPath;
+            } else if ("best".equals(profile.getModel())) {
+                dataPath = tesseractBestDataPath;
+            } else if (profile.getModel() != null) {
+                throw new IllegalArgumentException("Unsupported OCR model: " + profile.getModel());
+            }
+            languages = profile.getLanguages() != null ? profile.getLanguages() : languages;
+            pageSegMode = profile.getPageSegMode() != null ? profile.getPageSegMode() : pageSegMode;
+        }
+        String key = dataPath + "|" + languages + "|" + pageSegMode;
+        OcrEnginePool pool = enginePools.get(key);
+        if (pool == null) {
+            for (String language : languages.split("\\+")) {
+                if (!Files.exists(Paths.get(dataPath, language + ".traineddata"))) {
+                    throw new IllegalArgumentException("OCR language '" + language + "' is not installed in " + dataPath);
+                }
+            }
+            String engineDataPath = dataPath;
+            String engineLanguages = languages;
+            int enginePageSegMode = pageSegMode;
+            int engines = ocrThreads > 0 ? ocrThreads : Runtime.getRuntime().availableProcessors();
+            pool = new OcrEnginePool(
+                    () -> new OcrEngine(engineDataPath, engineLanguages, OCR_ENGINE_MODE, enginePageSegMode), engines);
+            enginePools.put(key, pool);
+            logger.info("Created OCR engine pool for data path {}, languages {}, PSM {}", dataPath, languages, pageSegMode);
+            if (enginePools.size() > maxProfiles) {
+                Map.Entry<String, OcrEnginePool> eldest = enginePools.entrySet().iterator().next();
+                enginePools.remove(eldest.getKey());
+                eldest.getValue().close(); // engines still in use are closed when given back
+                logger.info("Closed least recently used OCR engine pool {}", eldest.getKey());
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Renders a page into a pooled 8-bit gray raster, the same way renderImageWithDPI(page, dpi,
+     * ImageType.GRAY) does but without allocating a new image per page.
+     */
+    private RasterPool.PooledRaster renderPage(PDFRenderer renderer, PDPage page, int pageIndex, int dpi) throws IOException {
+        float scale = dpi / 72f;
+        PDRectangle cropBox = page.getCropBox();
+        int width = (int) Math.max(Math.floor(cropBox.getWidth() * scale), 1);
+        int height = (int) Math.max(Math.floor(cropBox.getHeight() * scale), 1);
+        if (page.getRotation() == 90 || page.getRotation() == 270) {
+            int swap = width;
+            width = height;
+            height = swap;
+        }
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new UnprocessableInputException("Page " + (pageIndex + 1) + " is too large to render at " + dpi + " DPI ("
+                    + width + "x" + height + ").");
+        }
+        RasterPool.PooledRaster raster = rasterPool.acquire(width, height);
+        Graphics2D g = raster.getImage().createGraphics();
+        try {
+            // The buffer still holds the previous page; clear it to white like renderImage does
+            g.setBackground(Color.WHITE);
+            g.clearRect(0, 0, width, height);
+            renderer.renderPageToGraphics(pageIndex, g, scale);
+            return raster;
+        } catch (IOException | RuntimeException e) {
+            raster.close();
+            throw e;
+        } finally {
+            g.dispose();
+        }
+    }
+
+    // Renders the page at blankDpi and checks its ink coverage
+    private boolean isBlank(PDFRenderer renderer, PDPage page, int pageIndex) throws IOException {
+        try (RasterPool.PooledRaster raster = renderPage(renderer, page, pageIndex, blankDpi)) {
+            return isBlank(raster.getImage(), blankMaxInkRatio);
+        }
+    }
+
+    /**
+     * Measures ink coverage of an 8-bit gray image with packed rows: the share of pixels darker
+     * than INK_THRESHOLD, ignoring a margin where scanner edges and punch holes show up.
+     */
+    static boolean isBlank(BufferedImage image, double maxInkRatio) {
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int marginX = width / 20;
+        int marginY = height / 20;
+        long ink = 0;
+        long area = 0;
+        for (int y = marginY; y < height - marginY; y++) {
+            int row = y * width;
+            for (int x = marginX; x < width - marginX; x++) {
+                if ((pixels[row + x] & 0xff) < INK_THRESHOLD) {
+                    ink++;
+                }
+            }
+            area += width - 2 * marginX;
+        }
+        return area == 0 || (double) ink / area <= maxInkRatio;
+    }
+
+    // Decoded images come in whatever layout the codec produced; Tesseract gets 8-bit gray
+    private static BufferedImage toGray(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_BYTE_GRAY && image.getRaster().getParent() == null) {
+            return image;
+        }
+        BufferedImage gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = gray.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
         }
+        return gray;
     }
 }
\ No newline at end of file
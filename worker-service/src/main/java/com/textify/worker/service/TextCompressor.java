@@ -0,0 +1,136 @@
+package com.textify.worker.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Encodes extracted text for storage. Plain text usually gzips well, which cuts storage and
+ * egress; the object is stored with Content-Encoding: gzip. Requests to its signed URL that send
+ * Accept-Encoding: gzip get the gzip bytes and must decode them (browsers and curl --compressed
+ * do). Requests without it, such as plain curl or java.net.http, get plain text that GCS
+ * decompresses itself; those responses have no Content-Length and ignore Range. The text is
+ * encoded to UTF-8 straight into the compressor, without a full uncompressed copy. Text and
+ * stored bytes, and the time spent compressing, are metered so the CPU cost can be weighed
+ * against the bytes saved.
+ */
+@Service
+public class TextCompressor {
+
+    private final boolean enabled;
+    private final int level;
+    private final int minChars;
+    private final Counter textBytes;
+    private final Counter storedBytes;
+    private final Timer compressTime;
+
+    public TextCompressor(MeterRegistry meterRegistry,
+                          @Value("${textify.worker.output.gzip.enabled:true}") boolean enabled,
+                          @Value("${textify.worker.output.gzip.level:6}") int level,
+                          @Value("${textify.worker.output.gzip.min-chars:1024}") int minChars) {
+        this.enabled = enabled;
+        this.level = level;
+        this.minChars = minChars;
+        this.textBytes = Counter.builder("textify.worker.output.bytes").tag("stage", "text").baseUnit("bytes")
+                .description("UTF-8 size of the extracted text").register(meterRegistry);
+        this.storedBytes = Counter.builder("textify.worker.output.bytes").tag("stage", "stored").baseUnit("bytes")
+                .description("Size of the extracted text as stored").register(meterRegistry);
+        this.compressTime = Timer.builder("textify.worker.output.compress-time")
+                .description("Time spent gzipping extracted text").register(meterRegistry);
+    }
+
+    /**
+     * Encodes the text as UTF-8, gzipped if enabled, the backend can record the encoding and the
+     * text is long enough for the gzip header and trailer to pay off.
+     */
+    public EncodedText encode(String text, boolean encodingSupported) {
+        if (!enabled || !encodingSupported || text.length() < minChars) {
+            byte[] plain = text.getBytes(StandardCharsets.UTF_8);
+            textBytes.increment(plain.length);
+            storedBytes.increment(plain.length);
+            return new EncodedText(plain, null);
+        }
+        long startedAt = System.nanoTime();
+        // Extracted text is mostly ASCII, so a third of its length is a fair first guess at the output
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(512, text.length() / 3));
+        long utf8Bytes;
+        try {
+            CountingOutputStream counted = new CountingOutputStream(new LevelGZIPOutputStream(compressed, level));
+            // Closing the writer finishes the gzip stream
+            try (Writer writer = new OutputStreamWriter(counted, StandardCharsets.UTF_8)) {
+                writer.write(text);
+            }
+            utf8Bytes = counted.count;
+        } catch (IOException e) {
+            // In-memory streams don't fail
+            throw new UncheckedIOException(e);
+        }
+        compressTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        textBytes.increment(utf8Bytes);
+        storedBytes.increment(compressed.size());
+        return new EncodedText(compressed.toByteArray(), "gzip");
+    }
+
+    /**
+     * The stored form of extracted text and its Content-Encoding, null if it is stored as is.
+     */
+    public static class EncodedText {
+        private final byte[] bytes;
+        private final String contentEncoding;
+
+        EncodedText(byte[] bytes, String contentEncoding) {
+            this.bytes = bytes;
+            this.contentEncoding = contentEncoding;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public String getContentEncoding() {
+            return contentEncoding;
+        }
+    }
+
+    private static class LevelGZIPOutputStream extends GZIPOutputStream {
+        LevelGZIPOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 64 * 1024);
+            def.setLevel(level);
+        }
+    }
+
+    // Counts the UTF-8 bytes on their way into the compressor
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
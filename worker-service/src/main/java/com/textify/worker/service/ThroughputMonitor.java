@@ -0,0 +1,111 @@
+package com.textify.worker.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.textify.worker.repository.JobRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Autoscaling signals from the worker's side: pages OCR'd per second, a moving average of OCR
+ * thread-seconds per page, and from those and the cluster-wide backlog (see BacklogMonitor in
+ * api-service) the number of workers needed to clear the backlog within target-drain-time.
+ * Every worker computes the same desired count from its own page cost, so an autoscaler can
+ * take the average or maximum over pods, e.g. through an HPA external metric.
+ */
+@Service
+public class ThroughputMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThroughputMonitor.class);
+
+    private static final double SMOOTHING = 0.2; // weight of the newest job in the moving average
+
+    private final JobRepository jobRepository;
+    private final int ocrThreads;
+    private final double targetDrainSeconds;
+    private final AtomicLong pagesDone = new AtomicLong();
+
+    private volatile double secondsPerPage;
+    private volatile double pagesPerSecond;
+    private volatile long outstandingPages;
+    private volatile long desiredWorkers;
+    private long lastPagesDone;
+    private long lastTickNanos = System.nanoTime();
+
+    public ThroughputMonitor(JobRepository jobRepository, MeterRegistry meterRegistry,
+                             @Value("${textify.worker.ocr.threads:0}") int ocrThreads,
+                             @Value("${textify.worker.autoscale.target-drain-time:PT5M}") Duration targetDrainTime,
+                             @Value("${textify.worker.autoscale.initial-seconds-per-page:2.0}") double initialSecondsPerPage) {
+        this.jobRepository = jobRepository;
+        // Same default as the ocrExecutor pool size
+        this.ocrThreads = ocrThreads > 0 ? ocrThreads : Runtime.getRuntime().availableProcessors();
+        this.targetDrainSeconds = Math.max(1, targetDrainTime.getSeconds());
+        // Used until this worker has finished a job of its own
+        this.secondsPerPage = initialSecondsPerPage;
+        Gauge.builder("textify.worker.throughput", this, ThroughputMonitor::getPagesPerSecond).baseUnit("pages/s")
+                .description("Pages OCR'd per second by this worker").register(meterRegistry);
+        Gauge.builder("textify.worker.ocr.page-time", this, ThroughputMonitor::getSecondsPerPage).baseUnit("seconds")
+                .description("Moving average of OCR thread time per page").register(meterRegistry);
+        Gauge.builder("textify.autoscale.outstanding-pages", this, ThroughputMonitor::getOutstandingPages)
+                .description("Pages waiting for or in OCR across all workers").register(meterRegistry);
+        Gauge.builder("textify.autoscale.desired-workers", this, ThroughputMonitor::getDesiredWorkers)
+                .description("Workers needed to clear the outstanding pages within the target drain time")
+                .register(meterRegistry);
+    }
+
+    // Called once per job that made it through OCR, with the time its OCR thread spent on it
+    public void recordOcr(int pages, long ocrNanos) {
+        if (pages <= 0) {
+            return;
+        }
+        pagesDone.addAndGet(pages);
+        double sample = ocrNanos / 1e9 / pages;
+        synchronized (this) {
+            secondsPerPage = secondsPerPage + SMOOTHING * (sample - secondsPerPage);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${textify.worker.autoscale.interval-ms:15000}")
+    public void refresh() {
+        long now = System.nanoTime();
+        long done = pagesDone.get();
+        double elapsedSeconds = (now - lastTickNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        pagesPerSecond = (done - lastPagesDone) / Math.max(elapsedSeconds, 1e-3);
+        lastPagesDone = done;
+        lastTickNanos = now;
+        try {
+            outstandingPages = jobRepository.sumOutstandingPages();
+            // Thread-seconds of OCR outstanding, spread over each worker's OCR threads for the drain time
+            double workerSeconds = outstandingPages * secondsPerPage / ocrThreads;
+            desiredWorkers = (long) Math.ceil(workerSeconds / targetDrainSeconds);
+        } catch (RuntimeException e) {
+            // The gauges keep their last values until the next refresh
+            logger.warn("Could not read the outstanding pages: {}", e.getMessage());
+        }
+    }
+
+    public double getPagesPerSecond() {
+        return pagesPerSecond;
+    }
+
+    public double getSecondsPerPage() {
+        return secondsPerPage;
+    }
+
+    public long getOutstandingPages() {
+        return outstandingPages;
+    }
+
+    public long getDesiredWorkers() {
+        return desiredWorkers;
+    }
+}
@@ -1,17 +1,34 @@
 package com.textify.worker.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.textify.worker.dto.OcrProfile;
+import com.textify.worker.dto.ProcessingRequestPayload;
+import com.textify.worker.exception.JobCancelledException;
+import com.textify.worker.exception.JobFailedException;
+import com.textify.worker.exception.JobLeasedException;
+import com.textify.worker.exception.LeaseExpiredException;
+import com.textify.worker.exception.UnprocessableInputException;
 import com.textify.worker.model.Job;
+import com.textify.worker.model.JobFailure;
+import com.textify.worker.model.JobText;
+import com.textify.worker.repository.JobFailureRepository;
 import com.textify.worker.repository.JobRepository;
+import com.textify.worker.repository.JobTextRepository;
 
-import jakarta.transaction.Transactional;
-
+/**
+ * The three stages of processing a job. JobDispatcher runs each stage on its own executor,
+ * so downloads, OCR and uploads of different jobs overlap instead of running back to back.
+ */
 @Service
 public class WorkerProcessingService {
 
@@ -20,124 +37,326 @@ public class WorkerProcessingService {
     private static final long INITIAL_BACKOFF_MILLIS = 1000; // 1 second
 
     private final JobRepository jobRepository;
-    private final GCSService gcsService;
+    private final BlobStore blobStore;
+    private final InputPrefetcher inputPrefetcher;
     private final TesseractOcrService tesseractOcrService;
+    private final JobLeaseManager jobLeaseManager;
+    private final AdmissionController admissionController;
+    private final ThroughputMonitor throughputMonitor;
+    private final TextCompressor textCompressor;
+    private final JobFailureRepository jobFailureRepository;
+    private final JobTextRepository jobTextRepository;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${spring.cloud.gcp.storage.bucket-name.processed-files}")
     private String processedFilesBucketName;
 
-    public WorkerProcessingService(JobRepository jobRepository, GCSService gcsService, TesseractOcrService tesseractOcrService) {
+    // Deliveries of a job before a retryable failure is treated as final and the job dead-lettered
+    @Value("${textify.worker.failures.max-attempts:5}")
+    private int maxAttempts;
+
+    // Results up to this many UTF-8 bytes are kept in job_texts instead of storage; 0 stores all of them
+    @Value("${textify.worker.output.inline-max-bytes:4096}")
+    private int inlineMaxBytes;
+
+    // Length of extracted_text_preview, at most its 255 character column
+    @Value("${textify.worker.output.preview-chars:255}")
+    private int previewChars;
+
+    public WorkerProcessingService(JobRepository jobRepository, BlobStore blobStore, InputPrefetcher inputPrefetcher,
+                                   TesseractOcrService tesseractOcrService, JobLeaseManager jobLeaseManager,
+                                   AdmissionController admissionController, ThroughputMonitor throughputMonitor,
+                                   TextCompressor textCompressor,
+                                   JobFailureRepository jobFailureRepository, JobTextRepository jobTextRepository,
+                                   TransactionTemplate transactionTemplate) {
         this.jobRepository = jobRepository;
-        this.gcsService = gcsService;
+        this.blobStore = blobStore;
+        this.inputPrefetcher = inputPrefetcher;
         this.tesseractOcrService = tesseractOcrService;
+        this.jobLeaseManager = jobLeaseManager;
+        this.admissionController = admissionController;
+        this.throughputMonitor = throughputMonitor;
+        this.textCompressor = textCompressor;
+        this.jobFailureRepository = jobFailureRepository;
+        this.jobTextRepository = jobTextRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /**
-     * Processes a job, with retry logic in case the job is not found immediately.
-     * This handles the race condition where the Pub/Sub message arrives before
-     * the database transaction has committed.
+     * Stage 1 (I/O): loads the job, leases it (marking it PROCESSING) and downloads the original file.
+     * Runs ahead of the OCR stage, so this prefetches inputs for jobs still queued for OCR.
      *
-     * @param jobId The ID of the job to process.
+     * @param delivery The processing request received from the job queue.
+     * @return The work item for the OCR stage.
      */
-    public void processJobWithRetry(String jobId, String userId, String originalGcsPath) {
-        int retryCount = 0;
-        long backoff = INITIAL_BACKOFF_MILLIS;
-
-        while (retryCount < MAX_RETRIES) {
-            try {
-                Job job = jobRepository.findById(jobId)
-                    .orElseThrow(() -> new RuntimeException("Job not found in DB: " + jobId));
-
-                // If the job is found, proceed with processing
-                logger.info("Processing job: {} for user{}", jobId, userId);
-                _doProcessJob(job, originalGcsPath, userId);
-                logger.info("Successfully processed job: {}", jobId);
-                return; // Exit the loop on success
-            } catch (RuntimeException e) {
-                // The job was not found, so we'll retry.
-                retryCount++;
-                logger.warn("Job {} not found on attempt {}. Retrying in {}ms...", jobId, retryCount, backoff);
-
-                try {
-                    Thread.sleep(backoff);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    logger.error("Retry thread interrupted", ie);
-                    break;
-                }
-
-                // Exponential backoff
-                backoff *= 2;
-            }
+    public JobWork fetch(JobDelivery delivery) {
+        ProcessingRequestPayload request = delivery.getRequest();
+        // Deliveries wait for a fetch slot; one that waited past its lease is already being redelivered elsewhere
+        checkLease(delivery.getLeaseExpiry(), request.getJobId());
+        Job job = findJobWithRetry(request.getJobId());
+        if ("CANCELLED".equals(job.getStatus())) {
+            throw new JobCancelledException("Job " + job.getId() + " was cancelled before processing started.");
+        }
+        // 1. Lease the job and update Status to PROCESSING
+        if (!jobLeaseManager.acquire(job, delivery)) {
+            throw new JobLeasedException("Job " + job.getId() + " is already finished or leased by another worker.");
+        }
+        logger.info("Processing job: {} for user {}", job.getId(), request.getUserId());
+        logger.info("Job {} status updated to PROCESSING.", job.getId());
+        JobWork work = new JobWork(request, job, delivery);
+        // A job that keeps taking workers down never gets to fail() on its own; cap its deliveries here
+        if (attempt(work) > maxAttempts) {
+            throw fail(work, new RuntimeException("Job was delivered " + attempt(work) + " times without finishing."));
         }
-
-        // If the loop finishes without success, log a fatal error.
-        logger.error("Job {} failed after {} retries. Giving up.", jobId, MAX_RETRIES);
-    }
-
-    @Transactional
-    private void _doProcessJob(Job job, String originalGcsPath, String userId) {
-        String errorMessage = null;
         try {
-            // 1. Update Status to PROCESSING
-            job.setStatus("PROCESSING");
-            job.setUpdatedAt(Instant.now());
-            jobRepository.save(job);
-            logger.info("Job {} status updated to PROCESSING.", job.getId());
+            // 2. Download Original File from storage (GCS or local), in memory or spilled to disk
+            JobInput input = inputPrefetcher.fetch(request.getOriginalGcsPath());
+            work.setInput(input);
+            logger.info("File for job {} downloaded from storage. Size: {} bytes{}", job.getId(), input.size(),
+                    input.isSpilled() ? " (spilled to disk)" : "");
+            return work;
+        } catch (Exception e) {
+            throw fail(work, e);
+        }
+    }
 
-            // 2. Download Original File from GCS
-            byte[] fileBytes = gcsService.downloadFile(originalGcsPath);
-            logger.info("File for job {} downloaded from GCS. Size: {} bytes", job.getId(), fileBytes.length);
+    /**
+     * Stage 2 (CPU): extracts text with OCR or PDF parsing, once AdmissionController has room in
+     * its heap budget for the job. Scanned PDFs check for cancellation between pages and stop
+     * part way through a cancelled job.
+     */
+    public JobWork extract(JobWork work) {
+        Job job = work.getJob();
+        // The raw file is no longer needed after this stage; don't hold it while waiting for persist
+        try (JobInput input = work.getInput()) {
+            // Same for a prefetched job that waited past its lease for an OCR thread
+            checkLease(work.getLeaseExpiry(), job.getId());
+            checkCancelled(job);
 
             // 3. Extract Text (OCR or PDF parsing)
-            String extractedText;
             String fileTypeCategory = job.getFileType();
-            String originalFilename = job.getOriginal_filename();
-
-            if ("image".equals(fileTypeCategory)) {
-                extractedText = tesseractOcrService.extractTextFromImage(fileBytes);
-            } else if ("pdf".equals(fileTypeCategory)) {
-                extractedText = tesseractOcrService.extractTextFromPdf(fileBytes);
-            } else {
-                throw new UnsupportedOperationException("Unsupported file type for processing: " + fileTypeCategory);
+            if (!"image".equals(fileTypeCategory) && !"pdf".equals(fileTypeCategory)) {
+                throw new UnprocessableInputException("Unsupported file type for processing: " + fileTypeCategory);
+            }
+            byte[] content = input.readAll();
+            OcrProfile profile = work.getRequest().getOcrProfile();
+            BooleanSupplier cancelled = () -> jobLeaseManager.isCancelled(job.getId()) || jobLeaseManager.isLost(job.getId());
+            ExtractionResult result;
+            // Waits while the jobs already in OCR hold the heap budget
+            JobCost cost = admissionController.estimate(content, fileTypeCategory, profile);
+            try (AdmissionController.HeapPermit permit = admissionController.reserveHeap(cost)) {
+                long ocrStartedAt = System.nanoTime();
+                if ("image".equals(fileTypeCategory)) {
+                    result = tesseractOcrService.extractTextFromImage(content, profile, cancelled);
+                } else {
+                    result = tesseractOcrService.extractTextFromPdf(content, profile, cancelled);
+                }
+                // Native text and blank pages take a fraction of the time; counting them would inflate capacity
+                throughputMonitor.recordOcr(result.getOcrPages(), System.nanoTime() - ocrStartedAt);
             }
+            // Page stats are saved with the COMPLETED status in persist
+            job.setPageCount(result.getPageCount());
+            job.setBlankPages(result.getBlankPages());
+            work.setExtractedText(result.getText());
+            logger.info("Text extracted for job {}. Extracted text length: {}, pages: {} ({} blank)", job.getId(),
+                    result.getText().length(), result.getPageCount(), result.getBlankPages());
+            return work;
+        } catch (LeaseExpiredException | JobLeasedException e) {
+            throw e;
+        } catch (JobCancelledException e) {
+            // OCR also stops for a lost lease, which is not a cancellation
+            throw jobLeaseManager.isLost(job.getId()) ? abandoned(job) : e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw fail(work, e);
+        } catch (Exception e) {
+            throw fail(work, e);
+        } finally {
+            work.setInput(null);
+        }
+    }
 
-            logger.info("Text extracted for job {}. Extracted text length: {}", job.getId(), extractedText.length());
+    /**
+     * Stage 3 (I/O): stores the extracted text and marks the job COMPLETED with a preview of it,
+     * unless it was cancelled (or taken over by another worker) in the meantime. Small results
+     * are kept in job_texts and served by api-service without a storage fetch; the rest is
+     * uploaded to storage.
+     */
+    public void persist(JobWork work) {
+        Job job = work.getJob();
+        try {
+            checkCancelled(job);
+            String text = work.getExtractedText();
+            String preview = preview(text, previewChars);
+            if (isInline(text, inlineMaxBytes)) {
+                Boolean completed = transactionTemplate.execute(status -> {
+                    if (jobRepository.markCompleted(job.getId(), job.getLeaseOwner(), null, job.getPageCount(),
+                            job.getBlankPages(), preview, Instant.now()) == 0) {
+                        return false;
+                    }
+                    jobTextRepository.save(new JobText(job.getId(), text));
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(completed)) {
+                    throw abandoned(job);
+                }
+                logger.info("Job {} status updated to COMPLETED, text stored inline.", job.getId());
+                return;
+            }
 
-            // 4. Upload Processed Text to GCS
-            String processedGcsBlobName = job.getId() + "/" + getBaseFileName(originalFilename) + ".txt"; // Save as .txt
+            // 4. Upload Processed Text to storage
+            String processedGcsBlobName = job.getId() + "/" + getBaseFileName(job.getOriginal_filename()) + ".txt"; // Save as .txt
 
-            String processedGcsPath = gcsService.uploadFile(
-                extractedText.getBytes(java.nio.charset.StandardCharsets.UTF_8),
+            // Stored gzipped where the backend can record the Content-Encoding; downloads decode it
+            TextCompressor.EncodedText encoded = textCompressor.encode(text, blobStore.supportsContentEncoding());
+            String processedGcsPath = blobStore.uploadFile(
+                encoded.getBytes(),
                 this.processedFilesBucketName,
                 processedGcsBlobName,
-                "text/plain"
+                "text/plain; charset=utf-8",
+                encoded.getContentEncoding()
             );
-            logger.info("Processed text for job {} uploaded to GCS at {}.", job.getId(), processedGcsPath);
+            logger.info("Processed text for job {} uploaded to storage at {}.", job.getId(), processedGcsPath);
 
-            // 5. Update Job Status to COMPLETED
-            job.setStatus("COMPLETED");
-            job.setProcessed_gcs_path(processedGcsPath);
-            job.setUpdatedAt(Instant.now());
-            jobRepository.save(job);
+            // 5. Update Job Status to COMPLETED (also clears the error left by a failed earlier attempt)
+            if (jobRepository.markCompleted(job.getId(), job.getLeaseOwner(), processedGcsPath, job.getPageCount(),
+                    job.getBlankPages(), preview, Instant.now()) == 0) {
+                throw abandoned(job);
+            }
             logger.info("Job {} status updated to COMPLETED.", job.getId());
-
+        } catch (JobCancelledException | JobLeasedException e) {
+            throw e;
         } catch (Exception e) {
-            errorMessage = "Processing failed: " + e.getMessage();
-            logger.error("Job {} failed: {}", job.getId(), errorMessage, e);
-            if (job != null) {
-                job.setStatus("FAILED");
-                job.setError_message(errorMessage.substring(0, Math.min(errorMessage.length(), 255)));
-                job.setUpdatedAt(Instant.now());
-                jobRepository.save(job);
-                logger.info("Job {} status updated to FAILED.", job.getId());
+            throw fail(work, e);
+        }
+    }
+
+    static boolean isInline(String text, int inlineMaxBytes) {
+        // A char is at least one UTF-8 byte, so longer texts are ruled out without encoding them
+        return inlineMaxBytes > 0 && text.length() <= inlineMaxBytes
+                && text.getBytes(StandardCharsets.UTF_8).length <= inlineMaxBytes;
+    }
+
+    // The start of the text, cut to previewChars without splitting a surrogate pair
+    static String preview(String text, int previewChars) {
+        String trimmed = text.strip();
+        int end = Math.min(trimmed.length(), Math.min(previewChars, 255));
+        if (end > 0 && end < trimmed.length() && Character.isHighSurrogate(trimmed.charAt(end - 1))) {
+            end--;
+        }
+        return trimmed.isEmpty() ? null : trimmed.substring(0, end);
+    }
+
+    private void checkCancelled(Job job) {
+        if (jobLeaseManager.isLost(job.getId())) {
+            throw abandoned(job);
+        }
+        if (jobLeaseManager.isCancelled(job.getId())) {
+            throw new JobCancelledException("Job " + job.getId() + " was cancelled during processing.");
+        }
+    }
+
+    // The job left PROCESSING under this worker: cancelled through the API, or requeued after the lease was lost
+    private RuntimeException abandoned(Job job) {
+        String status = jobRepository.findById(job.getId()).map(Job::getStatus).orElse(null);
+        if ("CANCELLED".equals(status)) {
+            return new JobCancelledException("Job " + job.getId() + " was cancelled during processing.");
+        }
+        return new JobLeasedException("Job " + job.getId() + " was taken over by another worker.");
+    }
+
+    private void checkLease(Instant leaseExpiry, String jobId) {
+        if (Instant.now().isAfter(leaseExpiry)) {
+            throw new LeaseExpiredException("Lease for job " + jobId + " expired before processing started.");
+        }
+    }
+
+    /**
+     * Looks the job up, with retry logic in case the job is not found immediately.
+     * This handles the race condition where the Pub/Sub message arrives before
+     * the database transaction has committed.
+     */
+    private Job findJobWithRetry(String jobId) {
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
+            Optional<Job> job = jobRepository.findById(jobId);
+            if (job.isPresent()) {
+                return job.get();
+            }
+            logger.warn("Job {} not found on attempt {}. Retrying in {}ms...", jobId, attempt, backoff);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while looking up job " + jobId, ie);
+            }
+            // Exponential backoff
+            backoff *= 2;
+        }
+        logger.error("Job {} not found after {} retries. Giving up.", jobId, MAX_RETRIES);
+        // Redelivering won't make the row appear (its upload transaction rolled back, or it was archived)
+        throw new JobFailedException("Job not found in DB: " + jobId, null, false);
+    }
+
+    /**
+     * Records a failed attempt and returns the exception the stage should rethrow.
+     * Permanent failures, and retryable ones on the last allowed attempt, mark the job FAILED
+     * once and write a job_failures row; the delivery is then acked or dead-lettered.
+     * Other failures put the job back to UPLOADED and the delivery is nacked for a retry.
+     * A job that was cancelled or taken over meanwhile is left as it is.
+     */
+    private RuntimeException fail(JobWork work, Exception e) {
+        Job job = work.getJob();
+        int attempt = attempt(work);
+        boolean permanent = isPermanent(e);
+        String errorMessage = "Processing failed: " + e.getMessage();
+        String storedMessage = errorMessage.substring(0, Math.min(errorMessage.length(), 255));
+        if (!permanent && attempt < maxAttempts) {
+            logger.warn("Job {} failed on attempt {} of {}, will be retried: {}", job.getId(), attempt, maxAttempts,
+                    errorMessage, e);
+            if (jobRepository.markFailed(job.getId(), job.getLeaseOwner(), "UPLOADED", storedMessage, Instant.now()) == 0) {
+                return abandoned(job);
+            }
+            return new RuntimeException("Job processing failed for " + job.getId(), e);
+        }
+
+        String reason = permanent ? "PERMANENT" : "RETRIES_EXHAUSTED";
+        logger.error("Job {} failed for good on attempt {} ({}): {}", job.getId(), attempt, reason, errorMessage, e);
+        JobFailure failure = new JobFailure(null, job.getId(), job.getUserId(), reason, attempt,
+                e.getClass().getName(), e.getMessage(), Instant.now());
+        Boolean marked = transactionTemplate.execute(status -> {
+            if (jobRepository.markFailed(job.getId(), job.getLeaseOwner(), "FAILED", storedMessage, Instant.now()) == 0) {
+                return false;
+            }
+            jobFailureRepository.save(failure);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(marked)) {
+            return abandoned(job);
+        }
+        logger.info("Job {} status updated to FAILED.", job.getId());
+        return new JobFailedException("Job processing failed for " + job.getId() + " (" + reason + ")", e, !permanent);
+    }
+
+    // Attempts counted by the worker, or by the queue if it has seen more (e.g. deliveries that never reached a worker)
+    private int attempt(JobWork work) {
+        Integer deliveryAttempt = work.getDelivery().getDeliveryAttempt();
+        return Math.max(work.getJob().getAttempts(), deliveryAttempt == null ? 0 : deliveryAttempt);
+    }
+
+    // Failures caused by the job's input, which would repeat on every delivery. Only the decode and
+    // parse steps know that, so anything else (including library and programming errors) is retried
+    static boolean isPermanent(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UnprocessableInputException) {
+                return true;
             }
-            throw new RuntimeException("Job processing failed for " + job.getId(), e);
         }
+        return false;
     }
 
     private String getBaseFileName(String filename) {
         int dotIndex = filename.lastIndexOf('.');
         return (dotIndex == -1) ? filename : filename.substring(0, dotIndex);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdmissionControllerTest {
+
+    private static final double MAX_GC_FRACTION = 0.1;
+    private static final double MAX_HEAP_AFTER_GC = 0.8;
+
+    private final AdmissionController admission = controller(1000, 0.6, 16_000_000);
+
+    @Test
+    void startsAtTwiceTheCoreCount() {
+        assertEquals(Math.min(1000, 2 * Runtime.getRuntime().availableProcessors()), admission.getLimit());
+        assertEquals(1, controller(1, 0.6, 16_000_000).getLimit());
+    }
+
+    @Test
+    void growsByOneWhileTheLimitIsReachedWithCpuToSpare() throws InterruptedException {
+        int limit = admission.getLimit();
+        fill(admission);
+
+        admission.adjust(0, 0.5, 0.5);
+        assertEquals(limit + 1, admission.getLimit());
+
+        // The limit was not reached again since
+        admission.adjust(0, 0.5, 0.5);
+        assertEquals(limit + 1, admission.getLimit());
+    }
+
+    @Test
+    void doesNotGrowWhenTheCpuIsBusy() throws InterruptedException {
+        int limit = admission.getLimit();
+        fill(admission);
+
+        admission.adjust(0, 0.5, 0.95);
+
+        assertEquals(limit, admission.getLimit());
+    }
+
+    @Test
+    void neverGrowsPastTheMaximum() throws InterruptedException {
+        AdmissionController capped = controller(2, 0.6, 16_000_000);
+        fill(capped);
+
+        capped.adjust(0, 0.5, 0.1);
+
+        assertEquals(2, capped.getLimit());
+    }
+
+    @Test
+    void shrinksByAQuarterUnderGcPressure() {
+        double limit = admission.getLimit();
+
+        admission.adjust(MAX_GC_FRACTION + 0.01, 0.5, 0.5);
+        assertEquals((int) (limit * 0.75), admission.getLimit());
+
+        admission.adjust(0, MAX_HEAP_AFTER_GC + 0.01, 0.5);
+        assertEquals((int) (limit * 0.75 * 0.75), admission.getLimit());
+    }
+
+    @Test
+    void neverShrinksBelowOne() {
+        for (int i = 0; i < 50; i++) {
+            admission.adjust(1, 1, 1);
+        }
+
+        assertEquals(1, admission.getLimit());
+    }
+
+    @Test
+    void shrinksSlightlyWhenPerPageLatencyDoubles() throws InterruptedException {
+        double limit = admission.getLimit();
+        admission.acquireSlot();
+        admission.releaseSlot(1_000_000, 1); // the baseline
+        for (int i = 0; i < 10; i++) {
+            admission.acquireSlot();
+            admission.releaseSlot(5_000_000, 1);
+        }
+
+        admission.adjust(0, 0.5, 0.5);
+
+        assertEquals((int) (limit * 0.9), admission.getLimit());
+    }
+
+    @Test
+    void aJobOverTheHeapBudgetRunsAloneAndOthersWaitForIt() throws Exception {
+        // A budget of a few bytes: every job is over it
+        AdmissionController tight = controller(1000, 1e-12, 16_000_000);
+        AdmissionController.HeapPermit first = tight.reserveHeap(new JobCost(1_000_000, 1));
+
+        CompletableFuture<AdmissionController.HeapPermit> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return tight.reserveHeap(new JobCost(1_000_000, 1));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertWaiting(second);
+
+        first.close();
+        second.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, tight.getHeapReserved());
+    }
+
+    @Test
+    void estimatesImagesFromTheirHeaderCappedAtTheDecodeLimit() throws IOException {
+        byte[] png = png(100, 80);
+
+        assertEquals(png.length + 100 * 80 * 5, admission.estimate(png, "image", null).getHeapBytes());
+        assertEquals(png.length + 1000 * 5, controller(1000, 0.6, 1000).estimate(png, "image", null).getHeapBytes());
+    }
+
+    @Test
+    void countsPdfPagesFromThePageTree() {
+        byte[] pdf = "%PDF-1.4\n1 0 obj << /Type /Pages /Kids [] /Count 12 >> endobj\n2 0 obj << /Count 3 >> endobj"
+                .getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(12, admission.estimate(pdf, "pdf", null).getPages());
+    }
+
+    private static AdmissionController controller(int maxInFlight, double heapFraction, long maxDecodedPixels) {
+        return new AdmissionController(new SimpleMeterRegistry(), maxInFlight, heapFraction, MAX_GC_FRACTION,
+                MAX_HEAP_AFTER_GC, maxDecodedPixels);
+    }
+
+    private static void fill(AdmissionController controller) throws InterruptedException {
+        while (controller.remainingCapacity() > 0) {
+            controller.acquireSlot();
+        }
+    }
+
+    private static void assertWaiting(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(200, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return;
+        }
+        assertFalse(future.isDone(), "did not wait");
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY), "png", out));
+        return out.toByteArray();
+    }
+}
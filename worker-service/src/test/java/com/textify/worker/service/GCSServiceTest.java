@@ -0,0 +1,63 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+
+class GCSServiceTest {
+
+    private static final String PATH = "gs://raw-uploads/job-1/scan.pdf";
+    private static final BlobId LATEST = BlobId.of("raw-uploads", "job-1/scan.pdf");
+    private static final BlobId GENERATION = BlobId.of("raw-uploads", "job-1/scan.pdf", 42L);
+
+    private final Storage storage = mock(Storage.class);
+    private final GCSService gcsService = new GCSService(storage, "raw-uploads", "processed-files");
+
+    @Test
+    void downloadsReadTheGenerationFromTheMetadataWithoutAnotherLookup() {
+        Blob blob = mock(Blob.class);
+        when(blob.getSize()).thenReturn(3L);
+        when(blob.getGeneration()).thenReturn(42L);
+        when(storage.get(LATEST)).thenReturn(blob);
+        when(storage.readAllBytes(GENERATION)).thenReturn(new byte[] {1, 2, 3});
+        Path target = Path.of("input.bin");
+
+        BlobMetadata metadata = gcsService.getMetadata(PATH);
+        byte[] content = gcsService.downloadFile(PATH, metadata);
+        gcsService.downloadTo(PATH, metadata, target);
+
+        assertEquals(3, metadata.getSize());
+        assertArrayEquals(new byte[] {1, 2, 3}, content);
+        verify(storage).downloadTo(GENERATION, target);
+        verify(storage, times(1)).get(any(BlobId.class));
+    }
+
+    @Test
+    void gzippedTextIsStoredSoGcsCanServeItDecompressed() {
+        byte[] gzipped = {31, -117, 8};
+
+        gcsService.uploadFile(gzipped, "processed-files", "job-1/scan.txt", "text/plain; charset=utf-8", "gzip");
+
+        ArgumentCaptor<BlobInfo> blobInfo = ArgumentCaptor.forClass(BlobInfo.class);
+        verify(storage).create(blobInfo.capture(), any(byte[].class));
+        assertEquals("gzip", blobInfo.getValue().getContentEncoding());
+        assertEquals("text/plain; charset=utf-8", blobInfo.getValue().getContentType());
+        // Cache-Control: no-transform would turn off decompressive transcoding for clients without Accept-Encoding: gzip
+        assertNull(blobInfo.getValue().getCacheControl());
+    }
+}
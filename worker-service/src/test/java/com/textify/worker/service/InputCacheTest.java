@@ -0,0 +1,136 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InputCacheTest {
+
+    private static final BlobMetadata METADATA = new BlobMetadata(4, "1");
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private InputCache inputCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        inputCache = new InputCache(new SimpleMeterRegistry(), true, directory.toString(), DataSize.ofMegabytes(1));
+        inputCache.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void hitsServeTheCachedCopy() {
+        InputCache.CachedFile first = inputCache.acquire("gs://raw/a", METADATA, writing("data"));
+        first.release();
+        InputCache.CachedFile second = inputCache.acquire("gs://raw/a", METADATA, writing("data"));
+
+        assertEquals(1, downloads.get());
+        assertEquals(first.getFile(), second.getFile());
+        second.release();
+    }
+
+    @Test
+    void entriesAreSizedByTheBytesOnDisk() {
+        // The metadata claims 4 bytes, the download writes 9
+        InputCache.CachedFile cached = inputCache.acquire("gs://raw/a", METADATA, writing("more data"));
+
+        assertEquals(9, cached.getSize());
+        assertEquals(9, inputCache.getTotalBytes());
+        cached.release();
+    }
+
+    @Test
+    void concurrentMissesShareOneDownload() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        BiConsumer<String, Path> slow = (path, target) -> {
+            started.countDown();
+            await(finish);
+            writing("data").accept(path, target);
+        };
+
+        Future<InputCache.CachedFile> first = executor.submit(() -> inputCache.acquire("gs://raw/a", METADATA, slow));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<InputCache.CachedFile> second = executor.submit(() -> inputCache.acquire("gs://raw/a", METADATA, slow));
+        Future<InputCache.CachedFile> third = executor.submit(() -> inputCache.acquire("gs://raw/a", METADATA, slow));
+        finish.countDown();
+
+        Path file = first.get(5, TimeUnit.SECONDS).getFile();
+        assertSame(file, second.get(5, TimeUnit.SECONDS).getFile());
+        assertSame(file, third.get(5, TimeUnit.SECONDS).getFile());
+        assertEquals(1, downloads.get());
+        assertEquals("data", Files.readString(file));
+    }
+
+    @Test
+    void waitersGetTheFailureOfTheSharedDownload() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        BiConsumer<String, Path> failing = (path, target) -> {
+            downloads.incrementAndGet();
+            started.countDown();
+            await(finish);
+            throw new UncheckedIOException(new IOException("storage unavailable"));
+        };
+
+        Future<InputCache.CachedFile> first = executor.submit(() -> inputCache.acquire("gs://raw/a", METADATA, failing));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<InputCache.CachedFile> second = executor.submit(() -> inputCache.acquire("gs://raw/a", METADATA, failing));
+        finish.countDown();
+
+        assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+        // The failure is not cached; a later request downloads again
+        InputCache.CachedFile retried = inputCache.acquire("gs://raw/a", METADATA, writing("data"));
+        assertEquals("data", Files.readString(retried.getFile()));
+        retried.release();
+    }
+
+    private BiConsumer<String, Path> writing(String content) {
+        return (path, target) -> {
+            downloads.incrementAndGet();
+            try {
+                Files.writeString(target, content);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
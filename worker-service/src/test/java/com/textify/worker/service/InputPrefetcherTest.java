@@ -0,0 +1,118 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InputPrefetcherTest {
+
+    private static final int BUDGET = 100;
+
+    @TempDir
+    Path spillDirectory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BlobStore blobStore = mock(BlobStore.class);
+    private InputPrefetcher prefetcher;
+
+    @BeforeEach
+    void setUp() {
+        InputCache inputCache = mock(InputCache.class);
+        when(inputCache.isEnabled()).thenReturn(false);
+        when(blobStore.getMetadata(anyString()))
+                .thenAnswer(invocation -> new BlobMetadata(sizeOf(invocation.getArgument(0)), "1"));
+        when(blobStore.downloadFile(anyString(), any(BlobMetadata.class)))
+                .thenAnswer(invocation -> new byte[sizeOf(invocation.getArgument(0))]);
+        doAnswer(invocation -> {
+            Files.write(invocation.getArgument(2), new byte[sizeOf(invocation.getArgument(0))]);
+            return null;
+        }).when(blobStore).downloadTo(anyString(), any(BlobMetadata.class), any(Path.class));
+        prefetcher = new InputPrefetcher(blobStore, inputCache, meterRegistry, DataSize.ofBytes(BUDGET),
+                spillDirectory.toString());
+    }
+
+    @Test
+    void inputsWithinTheBudgetAreHeldInMemory() {
+        try (JobInput first = prefetcher.fetch("60"); JobInput second = prefetcher.fetch("40")) {
+            assertFalse(first.isSpilled());
+            assertFalse(second.isSpilled());
+            assertEquals(100, bytesInMemory());
+        }
+        assertEquals(0, bytesInMemory());
+    }
+
+    @Test
+    void inputsOverTheBudgetAreSpilledToDisk() throws IOException {
+        try (JobInput first = prefetcher.fetch("60"); JobInput second = prefetcher.fetch("41")) {
+            assertFalse(first.isSpilled());
+            assertTrue(second.isSpilled());
+            assertEquals(41, second.size());
+            assertArrayEquals(new byte[41], second.readAll());
+            assertEquals(60, bytesInMemory());
+            assertEquals(1, spills());
+        }
+        try (var files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count(), "spill files are deleted on close");
+        }
+    }
+
+    @Test
+    void closingAnInputFreesItsBudget() {
+        JobInput first = prefetcher.fetch("80");
+        first.close();
+        first.close();
+
+        try (JobInput second = prefetcher.fetch("80")) {
+            assertFalse(second.isSpilled());
+            assertEquals(80, bytesInMemory());
+        }
+    }
+
+    @Test
+    void oneInputIsAdmittedOnItsOwnHoweverLarge() {
+        try (JobInput large = prefetcher.fetch("500")) {
+            assertFalse(large.isSpilled());
+            assertEquals(500, bytesInMemory());
+        }
+    }
+
+    @Test
+    void failedDownloadsReturnTheirReservation() {
+        when(blobStore.downloadFile(eq("70"), any(BlobMetadata.class))).thenThrow(new IllegalStateException("storage unavailable"));
+
+        assertThrows(IllegalStateException.class, () -> prefetcher.fetch("70"));
+        assertEquals(0, bytesInMemory());
+    }
+
+    // The test paths are the object sizes
+    private static int sizeOf(String path) {
+        return Integer.parseInt(path);
+    }
+
+    private double bytesInMemory() {
+        return meterRegistry.get("textify.worker.prefetch.memory.bytes").gauge().value();
+    }
+
+    private double spills() {
+        return meterRegistry.get("textify.worker.prefetch.spills").counter().count();
+    }
+}
@@ -0,0 +1,159 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.textify.worker.dto.ProcessingRequestPayload;
+import com.textify.worker.model.Job;
+import com.textify.worker.repository.JobRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JobLeaseManagerTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JobLeaseManager leaseManager = new JobLeaseManager(jobRepository, meterRegistry, LEASE);
+
+    @Test
+    void acquiringTakesALeaseForTheLeaseDuration() {
+        when(jobRepository.acquireLease(eq("job-1"), anyString(), any(), any())).thenReturn(1);
+        Job job = job("job-1");
+
+        Instant before = Instant.now();
+        assertTrue(leaseManager.acquire(job, delivery("job-1")));
+
+        ArgumentCaptor<Instant> expiresAt = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> now = ArgumentCaptor.forClass(Instant.class);
+        verify(jobRepository).acquireLease(eq("job-1"), eq(job.getLeaseOwner()), expiresAt.capture(), now.capture());
+        assertEquals(LEASE, Duration.between(now.getValue(), expiresAt.getValue()));
+        assertFalse(now.getValue().isBefore(before));
+        // The entity follows the row
+        assertEquals("PROCESSING", job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertEquals(expiresAt.getValue(), job.getLeaseExpiresAt());
+    }
+
+    @Test
+    void jobsLeasedElsewhereAreNotAcquired() {
+        Job job = job("job-1");
+
+        assertFalse(leaseManager.acquire(job, delivery("job-1")));
+
+        assertEquals("UPLOADED", job.getStatus());
+        assertEquals(0, job.getAttempts());
+        leaseManager.heartbeat();
+        verify(jobRepository, never()).renewLease(anyString(), anyString(), any());
+    }
+
+    @Test
+    void heartbeatRenewsTheLeaseAndExtendsTheDelivery() {
+        when(jobRepository.acquireLease(eq("job-1"), anyString(), any(), any())).thenReturn(1);
+        when(jobRepository.renewLease(eq("job-1"), anyString(), any())).thenReturn(1);
+        JobDelivery delivery = delivery("job-1");
+        leaseManager.acquire(job("job-1"), delivery);
+
+        Instant before = Instant.now();
+        leaseManager.heartbeat();
+
+        ArgumentCaptor<Instant> expiresAt = ArgumentCaptor.forClass(Instant.class);
+        verify(jobRepository).renewLease(eq("job-1"), anyString(), expiresAt.capture());
+        assertFalse(expiresAt.getValue().isBefore(before.plus(LEASE)));
+        verify(delivery).extendLease();
+        assertFalse(leaseManager.isLost("job-1"));
+    }
+
+    @Test
+    void aLeaseThatCannotBeRenewedIsLostAndNoLongerExtended() {
+        when(jobRepository.acquireLease(eq("job-1"), anyString(), any(), any())).thenReturn(1);
+        // Expired and taken over by another worker
+        when(jobRepository.renewLease(eq("job-1"), anyString(), any())).thenReturn(0);
+        JobDelivery delivery = delivery("job-1");
+        leaseManager.acquire(job("job-1"), delivery);
+
+        leaseManager.heartbeat();
+        leaseManager.heartbeat();
+
+        assertTrue(leaseManager.isLost("job-1"));
+        verify(jobRepository, times(1)).renewLease(eq("job-1"), anyString(), any());
+        verify(delivery, never()).extendLease();
+        assertEquals(1, meterRegistry.counter("textify.worker.lease.lost").count());
+    }
+
+    @Test
+    void aFailedRenewalIsRetriedOnTheNextHeartbeat() {
+        when(jobRepository.acquireLease(eq("job-1"), anyString(), any(), any())).thenReturn(1);
+        when(jobRepository.renewLease(eq("job-1"), anyString(), any()))
+                .thenThrow(new RuntimeException("connection reset")).thenReturn(1);
+        JobDelivery delivery = delivery("job-1");
+        leaseManager.acquire(job("job-1"), delivery);
+
+        leaseManager.heartbeat();
+        assertFalse(leaseManager.isLost("job-1"));
+        leaseManager.heartbeat();
+
+        verify(delivery, times(1)).extendLease();
+    }
+
+    @Test
+    void releaseExpiresTheLeaseOfTheDeliveryThatHeldIt() {
+        when(jobRepository.acquireLease(eq("job-1"), anyString(), any(), any())).thenReturn(1);
+        JobDelivery delivery = delivery("job-1");
+        Job job = job("job-1");
+        leaseManager.acquire(job, delivery);
+
+        // A duplicate delivery of the same job never held the lease
+        leaseManager.release(delivery("job-1"));
+        verify(jobRepository, never()).releaseLease(anyString(), anyString(), any());
+
+        leaseManager.release(delivery);
+        verify(jobRepository).releaseLease(eq("job-1"), eq(job.getLeaseOwner()), any());
+        leaseManager.heartbeat();
+        verify(jobRepository, never()).renewLease(anyString(), anyString(), any());
+    }
+
+    @Test
+    void cancellationsArePolledForLeasedJobsOnly() {
+        when(jobRepository.acquireLease(anyString(), anyString(), any(), any())).thenReturn(1);
+        leaseManager.acquire(job("job-1"), delivery("job-1"));
+        leaseManager.acquire(job("job-2"), delivery("job-2"));
+        when(jobRepository.findCancelledIdsIn(any())).thenReturn(List.of("job-2"));
+
+        leaseManager.pollCancellations();
+
+        assertFalse(leaseManager.isCancelled("job-1"));
+        assertTrue(leaseManager.isCancelled("job-2"));
+        assertFalse(leaseManager.isCancelled("job-3"));
+    }
+
+    private static Job job(String id) {
+        Job job = new Job();
+        job.setId(id);
+        job.setStatus("UPLOADED");
+        return job;
+    }
+
+    private static JobDelivery delivery(String jobId) {
+        JobDelivery delivery = mock(JobDelivery.class);
+        when(delivery.getRequest()).thenReturn(new ProcessingRequestPayload(jobId, "gs://raw/" + jobId, "user-1", null));
+        return delivery;
+    }
+}
@@ -0,0 +1,84 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.textify.worker.dto.OcrProfile;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Model-set and language resolution. Each model set here has only some traineddata files, so
+ * which one a profile resolves to shows in the missing-language error, before any engine loads.
+ */
+class TesseractOcrServiceProfileTest {
+
+    @TempDir
+    Path tessdata;
+
+    private Path standard;
+    private Path fast;
+    private Path best;
+    private TesseractOcrService ocrService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        standard = Files.createDirectory(tessdata.resolve("standard"));
+        fast = Files.createDirectory(tessdata.resolve("fast"));
+        best = Files.createDirectory(tessdata.resolve("best"));
+        Files.createFile(standard.resolve("eng.traineddata"));
+        Files.createFile(fast.resolve("eng.traineddata"));
+        Files.createFile(best.resolve("deu.traineddata"));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ocrService = new TesseractOcrService(
+                new RasterPool(meterRegistry, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64)), null, meterRegistry);
+        ReflectionTestUtils.setField(ocrService, "tesseractDataPath", standard.toString());
+        ReflectionTestUtils.setField(ocrService, "tesseractFastDataPath", fast.toString());
+        ReflectionTestUtils.setField(ocrService, "tesseractBestDataPath", best.toString());
+        ReflectionTestUtils.setField(ocrService, "tesseractLang", "eng+osd");
+    }
+
+    @Test
+    void profilesWithoutAModelUseTheDefaultModelsAndLanguages() {
+        assertMissing(null, "osd", standard);
+        assertMissing(new OcrProfile(), "osd", standard);
+    }
+
+    @Test
+    void fastAndBestResolveToTheirModelSets() {
+        assertMissing(new OcrProfile("fast", "eng+deu", null, null), "deu", fast);
+        assertMissing(new OcrProfile("best", "deu+eng", null, null), "eng", best);
+    }
+
+    @Test
+    void unknownModelsAreRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ocrService.enginePool(new OcrProfile("legacy", null, null, null)));
+
+        assertEquals("Unsupported OCR model: legacy", e.getMessage());
+    }
+
+    @Test
+    void defaultDpiAppliesWhenTheProfileHasNone() {
+        assertEquals(300, TesseractOcrService.dpi(null));
+        assertEquals(300, TesseractOcrService.dpi(new OcrProfile()));
+        assertEquals(150, TesseractOcrService.dpi(new OcrProfile(null, null, null, 150)));
+    }
+
+    private void assertMissing(OcrProfile profile, String language, Path dataPath) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ocrService.enginePool(profile));
+
+        assertEquals("OCR language '" + language + "' is not installed in " + dataPath, e.getMessage());
+    }
+}
@@ -0,0 +1,141 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TesseractOcrServiceTest {
+
+    @Test
+    void mergeStripsDropsLinesRepeatedInTheOverlap() {
+        String merged = TesseractOcrService.mergeStrips(List.of("one\ntwo\nthree", "two\nthree\nfour", "four\nfive"));
+
+        assertEquals("one\ntwo\nthree\nfour\nfive", merged);
+    }
+
+    @Test
+    void mergeStripsMatchesLinesIgnoringWhitespace() {
+        String merged = TesseractOcrService.mergeStrips(List.of("first line\nsecond  line", "  second line \nthird line"));
+
+        assertEquals("first line\nsecond  line\nthird line", merged);
+    }
+
+    @Test
+    void mergeStripsSkipsBlankLinesAroundTheOverlap() {
+        String merged = TesseractOcrService.mergeStrips(List.of("one\ntwo\n\n", "\ntwo\nthree"));
+
+        assertEquals("one\ntwo\n\nthree", merged);
+    }
+
+    @Test
+    void mergeStripsKeepsStripsWithoutOverlap() {
+        String merged = TesseractOcrService.mergeStrips(List.of("one\ntwo", "three\nfour"));
+
+        assertEquals("one\ntwo\nthree\nfour", merged);
+    }
+
+    @Test
+    void mergeStripsKeepsRepeatsThatAreNotAtTheBoundary() {
+        // "one" recurs, but the strip before does not end with it
+        String merged = TesseractOcrService.mergeStrips(List.of("one\ntwo", "one\nthree"));
+
+        assertEquals("one\ntwo\none\nthree", merged);
+    }
+
+    @Test
+    void mergeStripsHandlesEmptyStrips() {
+        assertEquals("one\ntwo", TesseractOcrService.mergeStrips(List.of("", "one", "", "one\ntwo")));
+        assertEquals("", TesseractOcrService.mergeStrips(List.of("", "")));
+    }
+
+    @Test
+    void overlappingLinesPrefersTheLongestMatch() {
+        List<String> previous = List.of("a", "b", "a", "b");
+
+        assertEquals(2, TesseractOcrService.overlappingLines(previous, List.of("a", "b", "c")));
+        assertEquals(3, TesseractOcrService.overlappingLines(previous, List.of("", "a", "b")));
+        assertEquals(0, TesseractOcrService.overlappingLines(previous, List.of("c", "a", "b")));
+        assertEquals(0, TesseractOcrService.overlappingLines(List.of(), List.of("a")));
+    }
+
+    @Test
+    void stripStartsCoverTheImageWithOverlap() {
+        // 40-row strips every 30 rows overlap by 10; the last one ends exactly at the bottom
+        assertEquals(List.of(0, 30, 60), TesseractOcrService.stripStarts(100, 40, 30));
+        // One row more needs another, shorter strip
+        assertEquals(List.of(0, 30, 60, 90), TesseractOcrService.stripStarts(101, 40, 30));
+    }
+
+    @Test
+    void stripStartsUseOneStripForShortImages() {
+        assertEquals(List.of(0), TesseractOcrService.stripStarts(40, 40, 30));
+        assertEquals(List.of(0), TesseractOcrService.stripStarts(10, 40, 30));
+    }
+
+    // 200x200 with a 10 pixel margin leaves 180x180 = 32400 pixels; 0.002 of that is 64.8
+    private static final double MAX_INK_RATIO = 0.002;
+
+    @Test
+    void whitePagesAreBlank() {
+        assertTrue(TesseractOcrService.isBlank(page(), MAX_INK_RATIO));
+    }
+
+    @Test
+    void specksUpToTheInkRatioAreBlank() {
+        BufferedImage page = page();
+        ink(page, 50, 50, 8, 8, 0); // 64 pixels
+
+        assertTrue(TesseractOcrService.isBlank(page, MAX_INK_RATIO));
+    }
+
+    @Test
+    void inkAboveTheRatioIsNotBlank() {
+        BufferedImage page = page();
+        ink(page, 50, 50, 10, 10, 0); // 100 pixels
+
+        assertFalse(TesseractOcrService.isBlank(page, MAX_INK_RATIO));
+    }
+
+    @Test
+    void inkInTheMarginIsIgnored() {
+        BufferedImage page = page();
+        // Scanner edges down both sides, 10 pixels wide
+        ink(page, 0, 0, 10, 200, 0);
+        ink(page, 190, 0, 10, 200, 0);
+
+        assertTrue(TesseractOcrService.isBlank(page, MAX_INK_RATIO));
+    }
+
+    @Test
+    void onlyDarkGrayCountsAsInk() {
+        BufferedImage light = page();
+        ink(light, 50, 50, 10, 10, 160);
+        BufferedImage dark = page();
+        ink(dark, 50, 50, 10, 10, 159);
+
+        assertTrue(TesseractOcrService.isBlank(light, MAX_INK_RATIO));
+        assertFalse(TesseractOcrService.isBlank(dark, MAX_INK_RATIO));
+    }
+
+    private static BufferedImage page() {
+        BufferedImage page = new BufferedImage(200, 200, BufferedImage.TYPE_BYTE_GRAY);
+        ink(page, 0, 0, 200, 200, 255);
+        return page;
+    }
+
+    // Sets gray levels on the raster directly; drawing a Color would go through a color space conversion
+    private static void ink(BufferedImage page, int x, int y, int width, int height, int gray) {
+        WritableRaster raster = page.getRaster();
+        for (int row = y; row < y + height; row++) {
+            for (int column = x; column < x + width; column++) {
+                raster.setSample(column, row, 0, gray);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TextCompressorTest {
+
+    private static final int MIN_CHARS = 1024;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shortTextIsStoredAsIs() {
+        TextCompressor compressor = new TextCompressor(meterRegistry, true, 6, MIN_CHARS);
+        String text = "x".repeat(MIN_CHARS - 1);
+
+        TextCompressor.EncodedText encoded = compressor.encode(text, true);
+
+        assertNull(encoded.getContentEncoding());
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), encoded.getBytes());
+    }
+
+    @Test
+    void longTextIsGzipped() throws IOException {
+        TextCompressor compressor = new TextCompressor(meterRegistry, true, 6, MIN_CHARS);
+        String text = "\u00DCn\u00EFc\u00F6d\u00E9 OCR text, line after line.\n".repeat(200);
+
+        TextCompressor.EncodedText encoded = compressor.encode(text, true);
+
+        assertEquals("gzip", encoded.getContentEncoding());
+        assertTrue(encoded.getBytes().length < text.length());
+        assertEquals(text, gunzip(encoded.getBytes()));
+    }
+
+    @Test
+    void textIsStoredAsIsWhereTheBackendCannotRecordTheEncoding() {
+        TextCompressor compressor = new TextCompressor(meterRegistry, true, 6, MIN_CHARS);
+        String text = "y".repeat(MIN_CHARS * 4);
+
+        TextCompressor.EncodedText encoded = compressor.encode(text, false);
+
+        assertNull(encoded.getContentEncoding());
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), encoded.getBytes());
+    }
+
+    @Test
+    void textIsStoredAsIsWhenDisabled() {
+        TextCompressor compressor = new TextCompressor(meterRegistry, false, 6, MIN_CHARS);
+
+        assertNull(compressor.encode("z".repeat(MIN_CHARS * 4), true).getContentEncoding());
+    }
+
+    @Test
+    void metersTextAndStoredBytes() {
+        TextCompressor compressor = new TextCompressor(meterRegistry, true, 6, MIN_CHARS);
+        String text = "\u00E9".repeat(MIN_CHARS);
+
+        TextCompressor.EncodedText encoded = compressor.encode(text, true);
+
+        // Two UTF-8 bytes per char, counted on their way into the compressor
+        assertEquals(2.0 * MIN_CHARS, bytes("text"));
+        assertEquals(encoded.getBytes().length, bytes("stored"));
+    }
+
+    private double bytes(String stage) {
+        return meterRegistry.get("textify.worker.output.bytes").tag("stage", stage).counter().count();
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
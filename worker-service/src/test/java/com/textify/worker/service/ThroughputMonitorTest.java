@@ -0,0 +1,102 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.textify.worker.repository.JobRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ThroughputMonitorTest {
+
+    // 4 OCR threads at 2 s a page drain 600 pages in a 5 minute target per worker
+    private static final int OCR_THREADS = 4;
+    private static final Duration DRAIN_TIME = Duration.ofMinutes(5);
+    private static final double INITIAL_SECONDS_PER_PAGE = 2.0;
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final ThroughputMonitor monitor = new ThroughputMonitor(jobRepository, new SimpleMeterRegistry(),
+            OCR_THREADS, DRAIN_TIME, INITIAL_SECONDS_PER_PAGE);
+
+    @Test
+    void desiredWorkersClearTheBacklogWithinTheDrainTime() {
+        when(jobRepository.sumOutstandingPages()).thenReturn(1200L);
+
+        monitor.refresh();
+
+        assertEquals(1200, monitor.getOutstandingPages());
+        assertEquals(2, monitor.getDesiredWorkers());
+    }
+
+    @Test
+    void partWorkersRoundUp() {
+        when(jobRepository.sumOutstandingPages()).thenReturn(1201L, 1L);
+
+        monitor.refresh();
+        assertEquals(3, monitor.getDesiredWorkers());
+
+        monitor.refresh();
+        assertEquals(1, monitor.getDesiredWorkers());
+    }
+
+    @Test
+    void noBacklogNeedsNoWorkers() {
+        monitor.refresh();
+
+        assertEquals(0, monitor.getDesiredWorkers());
+    }
+
+    @Test
+    void pageTimeIsAMovingAverageOfOcrTime() {
+        // 10 pages in 10 s is 1 s a page; the average moves a fifth of the way from 2 s
+        monitor.recordOcr(10, TimeUnit.SECONDS.toNanos(10));
+        assertEquals(1.8, monitor.getSecondsPerPage(), 1e-9);
+
+        // Jobs without OCR'd pages (native text, all blank) say nothing about OCR cost
+        monitor.recordOcr(0, TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1.8, monitor.getSecondsPerPage(), 1e-9);
+    }
+
+    @Test
+    void fasterPagesNeedFewerWorkers() {
+        when(jobRepository.sumOutstandingPages()).thenReturn(1200L);
+        for (int i = 0; i < 50; i++) {
+            monitor.recordOcr(1, TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        monitor.refresh();
+
+        // 1200 pages at about 0.5 s over 4 threads is 150 s of work
+        assertEquals(1, monitor.getDesiredWorkers());
+    }
+
+    @Test
+    void throughputCountsThePagesSinceTheLastRefresh() {
+        monitor.refresh();
+        monitor.recordOcr(30, TimeUnit.SECONDS.toNanos(1));
+
+        monitor.refresh();
+        assertTrue(monitor.getPagesPerSecond() > 0);
+
+        monitor.refresh();
+        assertEquals(0, monitor.getPagesPerSecond());
+    }
+
+    @Test
+    void aFailedBacklogReadKeepsTheLastValues() {
+        when(jobRepository.sumOutstandingPages()).thenReturn(1200L).thenThrow(new RuntimeException("connection reset"));
+
+        monitor.refresh();
+        monitor.refresh();
+
+        assertEquals(1200, monitor.getOutstandingPages());
+        assertEquals(2, monitor.getDesiredWorkers());
+    }
+}
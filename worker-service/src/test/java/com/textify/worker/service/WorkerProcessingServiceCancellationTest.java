@@ -0,0 +1,135 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.textify.worker.dto.ProcessingRequestPayload;
+import com.textify.worker.exception.JobCancelledException;
+import com.textify.worker.exception.JobLeasedException;
+import com.textify.worker.model.Job;
+import com.textify.worker.repository.JobFailureRepository;
+import com.textify.worker.repository.JobRepository;
+import com.textify.worker.repository.JobTextRepository;
+
+/**
+ * How a cancellation through the API reaches each pipeline stage: a queued job is dropped
+ * before it is leased, and a leased one stops before OCR, during it, or before it is completed.
+ */
+class WorkerProcessingServiceCancellationTest {
+
+    private final JobRepository jobRepository = mock(JobRepository.class);
+    private final InputPrefetcher inputPrefetcher = mock(InputPrefetcher.class);
+    private final TesseractOcrService tesseractOcrService = mock(TesseractOcrService.class);
+    private final JobLeaseManager jobLeaseManager = mock(JobLeaseManager.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final WorkerProcessingService service = new WorkerProcessingService(jobRepository, mock(BlobStore.class),
+            inputPrefetcher, tesseractOcrService, jobLeaseManager, mock(AdmissionController.class),
+            mock(ThroughputMonitor.class), mock(TextCompressor.class), mock(JobFailureRepository.class),
+            mock(JobTextRepository.class), transactionTemplate);
+
+    private final JobDelivery delivery = mock(JobDelivery.class);
+    private final ProcessingRequestPayload request = new ProcessingRequestPayload("job-1", "gs://raw/job-1/scan.pdf",
+            "user-1", null);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(service, "maxAttempts", 5);
+        ReflectionTestUtils.setField(service, "inlineMaxBytes", 4096);
+        ReflectionTestUtils.setField(service, "previewChars", 255);
+        when(delivery.getRequest()).thenReturn(request);
+        when(delivery.getLeaseExpiry()).thenReturn(Instant.now().plusSeconds(600));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(call -> ((TransactionCallback<Object>) call.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void queuedJobsCancelledBeforeDeliveryAreNotLeased() throws Exception {
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(job("CANCELLED")));
+
+        assertThrows(JobCancelledException.class, () -> service.fetch(delivery));
+
+        verify(jobLeaseManager, never()).acquire(any(), any());
+        verify(inputPrefetcher, never()).fetch(anyString());
+    }
+
+    @Test
+    void jobsCancelledWhileWaitingForOcrAreNotOcrd() {
+        when(jobLeaseManager.isCancelled("job-1")).thenReturn(true);
+
+        assertThrows(JobCancelledException.class, () -> service.extract(work(job("PROCESSING"))));
+
+        verify(tesseractOcrService, never()).extractTextFromPdf(any(), any(), any());
+    }
+
+    @Test
+    void ocrStoppedByACancellationIsReportedAsCancelled() {
+        when(tesseractOcrService.extractTextFromPdf(any(), any(), any()))
+                .thenThrow(new JobCancelledException("OCR stopped at page 2 of 9: job was cancelled."));
+
+        assertThrows(JobCancelledException.class, () -> service.extract(work(job("PROCESSING"))));
+    }
+
+    @Test
+    void ocrStoppedByALostLeaseIsNotACancellation() {
+        when(tesseractOcrService.extractTextFromPdf(any(), any(), any()))
+                .thenThrow(new JobCancelledException("OCR stopped at page 2 of 9: job was cancelled."));
+        when(jobLeaseManager.isLost("job-1")).thenReturn(true);
+        // Requeued by the sweeper and picked up by another worker
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(job("PROCESSING")));
+
+        assertThrows(JobLeasedException.class, () -> service.extract(work(job("PROCESSING"))));
+    }
+
+    @Test
+    void jobsCancelledBeforePersistAreNotCompleted() {
+        when(jobLeaseManager.isCancelled("job-1")).thenReturn(true);
+        JobWork work = work(job("PROCESSING"));
+        work.setExtractedText("text");
+
+        assertThrows(JobCancelledException.class, () -> service.persist(work));
+
+        verify(jobRepository, never()).markCompleted(anyString(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void jobsCancelledAsTheyCompleteStayCancelled() {
+        // The poll has not seen the cancellation yet, but the guarded update does
+        when(jobRepository.markCompleted(eq("job-1"), any(), any(), any(), any(), any(), any())).thenReturn(0);
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(job("CANCELLED")));
+        JobWork work = work(job("PROCESSING"));
+        work.setExtractedText("text");
+
+        assertThrows(JobCancelledException.class, () -> service.persist(work));
+    }
+
+    private JobWork work(Job job) {
+        JobWork work = new JobWork(request, job, delivery);
+        work.setInput(JobInput.inMemory(new byte[] {'%', 'P', 'D', 'F'}, () -> { }));
+        return work;
+    }
+
+    private static Job job(String status) {
+        Job job = new Job();
+        job.setId("job-1");
+        job.setStatus(status);
+        job.setFileType("pdf");
+        job.setLeaseOwner("worker-1");
+        return job;
+    }
+}
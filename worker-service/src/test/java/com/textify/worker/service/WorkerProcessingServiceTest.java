@@ -0,0 +1,79 @@
+package com.textify.worker.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import com.textify.worker.exception.UnprocessableInputException;
+
+class WorkerProcessingServiceTest {
+
+    @Test
+    void previewIsTheStrippedStartOfTheText() {
+        assertEquals("hello", WorkerProcessingService.preview("  hello \n", 255));
+        assertEquals("hel", WorkerProcessingService.preview("hello", 3));
+    }
+
+    @Test
+    void previewIsNullForBlankText() {
+        assertNull(WorkerProcessingService.preview("", 255));
+        assertNull(WorkerProcessingService.preview(" \n\t ", 255));
+    }
+
+    @Test
+    void previewFitsTheColumn() {
+        assertEquals(255, WorkerProcessingService.preview("a".repeat(1000), 1000).length());
+    }
+
+    @Test
+    void previewDoesNotSplitSurrogatePairs() {
+        // U+1F600 is a surrogate pair; cutting after its first half would leave an unpaired surrogate
+        String text = "ab\uD83D\uDE00cd";
+
+        assertEquals("ab", WorkerProcessingService.preview(text, 3));
+        assertEquals("ab\uD83D\uDE00", WorkerProcessingService.preview(text, 4));
+    }
+
+    @Test
+    void smallResultsAreInline() {
+        assertTrue(WorkerProcessingService.isInline("short text", 4096));
+        assertTrue(WorkerProcessingService.isInline("x".repeat(4096), 4096));
+        assertTrue(WorkerProcessingService.isInline("", 4096));
+    }
+
+    @Test
+    void resultsOverTheLimitInUtf8BytesAreNotInline() {
+        assertFalse(WorkerProcessingService.isInline("x".repeat(4097), 4096));
+        // 3000 chars, but 6000 UTF-8 bytes
+        assertFalse(WorkerProcessingService.isInline("\u00E9".repeat(3000), 4096));
+    }
+
+    @Test
+    void nothingIsInlineWhenDisabled() {
+        assertFalse(WorkerProcessingService.isInline("", 0));
+        assertFalse(WorkerProcessingService.isInline("short text", 0));
+    }
+
+    @Test
+    void unprocessableInputIsPermanent() {
+        UnprocessableInputException unreadable = new UnprocessableInputException("Failed to read or render PDF",
+                new IOException("Header doesn't contain versioninfo"));
+
+        assertTrue(WorkerProcessingService.isPermanent(unreadable));
+        assertTrue(WorkerProcessingService.isPermanent(new RuntimeException("Extraction failed", unreadable)));
+    }
+
+    @Test
+    void otherFailuresAreRetried() {
+        // Thrown by libraries and by the worker's own checks; not evidence of a bad input
+        assertFalse(WorkerProcessingService.isPermanent(new IllegalArgumentException("OCR engine expects 8-bit gray images")));
+        assertFalse(WorkerProcessingService.isPermanent(new UnsupportedOperationException()));
+        assertFalse(WorkerProcessingService.isPermanent(new RuntimeException(new IllegalArgumentException())));
+        assertFalse(WorkerProcessingService.isPermanent(new IOException("Connection reset")));
+    }
+}